@@ -0,0 +1,106 @@
+package pepse;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.util.AllocationMeter;
+
+/**
+ * Headless check of the steady-state frame - plays a game of the default seed through its real update and
+ * render path without a window: the avatar stands on the ground with the camera following it, leafs fall,
+ * bottles drop and the resident chunks have nothing left to stream. Measures the bytes every frame allocates
+ * and fails if a frame that didn't cross a streaming boundary allocates more than a fixed budget. The budget
+ * holds what the game can't avoid - the engine replaces the immutable vectors of an object when it moves
+ * it, and a read of the stand-in input listener boxes its arguments - and nothing the game itself does.
+ * Run with: java pepse.AllocationCheck
+ *
+ * @author Tamuz Gitler
+ */
+public class AllocationCheck {
+
+    //================ private constants ==============
+
+    private static final int SEED = 754223;
+    private static final int WARMUP_FRAMES = 7200; //2 minutes, the JIT meets the rare leaf events by then
+    private static final int MEASURED_FRAMES = 3600;
+    private static final int FAILURE_STATUS = 1;
+    private static final long ALLOCATION_BUDGET_BYTES = 1536; //per steady frame, whatever moves in it
+    private static final float FRAME_TIME = 1f / 60;
+    private static final float NO_MOVEMENT = 0;
+
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1500, 1200);
+
+    //================ constructor ====================
+
+    /*
+     * Constructor - not instantiable
+     */
+    private AllocationCheck() {
+    }
+
+    //================ public methods =================
+
+    /**
+     * Runs the check, exits with a non zero status if a measured frame allocated more than the budget, or
+     * if no leaf fell while measuring.
+     *
+     * @param args ignored
+     */
+    public static void main(String[] args) {
+        AllocationMeter meter = new AllocationMeter();
+        if (!meter.isSupported()) {
+            System.out.println("allocation check skipped: the JVM doesn't count allocated bytes");
+            return;
+        }
+        HeadlessGame headlessGame = new HeadlessGame(WINDOW_DIMENSIONS, SEED);
+        PepseGameManager game = headlessGame.getGame();
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            headlessGame.frame(FRAME_TIME);
+        }
+
+        long maxBytes = 0;
+        long totalBytes = 0;
+        int numOfMeasuredFrames = 0;
+        int maxFallingLeafs = 0;
+        for (int frame = 0; frame < MEASURED_FRAMES; frame++) {
+            maxFallingLeafs = Math.max(maxFallingLeafs, countFallingLeafs(game));
+            meter.begin();
+            headlessGame.frame(FRAME_TIME);
+            long bytes = meter.end();
+            if (!game.isStreamingIdle()) {
+                continue; //crossed a streaming boundary
+            }
+            numOfMeasuredFrames++;
+            maxBytes = Math.max(maxBytes, bytes);
+            totalBytes += bytes;
+        }
+
+        System.out.printf("%d steady frames of %d: allocated average %d bytes, max %d bytes, budget %d " +
+                        "bytes%n", numOfMeasuredFrames, MEASURED_FRAMES,
+                numOfMeasuredFrames == 0 ? 0 : totalBytes / numOfMeasuredFrames, maxBytes,
+                ALLOCATION_BUDGET_BYTES);
+        System.out.printf("up to %d falling leafs, avatar %s on the ground, %d bottles collected%n",
+                maxFallingLeafs, game.getAvatar().getVelocity().y() == NO_MOVEMENT ? "standing" : "not",
+                game.getCollectedBottles());
+        if (numOfMeasuredFrames == 0 || maxFallingLeafs == 0 || maxBytes > ALLOCATION_BUDGET_BYTES) {
+            System.out.println("allocation check failed");
+            System.exit(FAILURE_STATUS);
+        }
+        System.out.println("allocation check passed");
+    }
+
+    //================ private methods ================
+
+    /*
+     * @return number of leafs that are falling at the moment
+     */
+    private static int countFallingLeafs(PepseGameManager game) {
+        int numOfFallingLeafs = 0;
+        for (GameObject gameObject : game.gameObjects().objectsInLayer(PepseGameManager.FALLING_LEAF_LAYER)) {
+            Vector2 velocity = gameObject.getVelocity();
+            if (velocity.x() != NO_MOVEMENT || velocity.y() != NO_MOVEMENT) {
+                numOfFallingLeafs++;
+            }
+        }
+        return numOfFallingLeafs;
+    }
+}
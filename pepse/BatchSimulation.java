@@ -0,0 +1,180 @@
+package pepse;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless batch of games - plays a game of every seed concurrently, one per core, each a headless
+ * PepseGameManager driven through its real update and render path. Every game is played by the same script:
+ * the avatar walks right for half of the game and back left for the other half, jumping every
+ * JUMP_INTERVAL_FRAMES. Prints the state every game ended in - won rounds, collected bottles, where the
+ * avatar stands with how much energy, and the objects of the leaf and bottle layers. The first seed is then
+ * played again alone, and the check fails if its end state differs - games in the same JVM must not share
+ * state.
+ * Run with: java pepse.BatchSimulation [number of games] [first seed]
+ *
+ * @author Tamuz Gitler
+ */
+public class BatchSimulation {
+
+    //================ private constants ==============
+
+    private static final int DEFAULT_FIRST_SEED = 754223;
+    private static final int NUM_OF_FRAMES = 3600; //a minute of play
+    private static final int JUMP_INTERVAL_FRAMES = 90;
+    private static final int FAILURE_STATUS = 1;
+    private static final int CHECKSUM_FACTOR = 31;
+    private static final int TREES = 0; //indices of the counted layers
+    private static final int LEAFS = 1;
+    private static final int FALLING_LEAFS = 2;
+    private static final int BOTTLES = 3;
+    private static final float FRAME_TIME = 1f / 60;
+    private static final double NANOS_IN_MILLI = 1_000_000.0;
+
+    private static final int[] COUNTED_LAYERS = {PepseGameManager.TREE_LAYER, PepseGameManager.LEAF_LAYER,
+            PepseGameManager.FALLING_LEAF_LAYER, PepseGameManager.RUM_LAYER};
+
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1500, 1200);
+
+    //================ constructor ====================
+
+    /*
+     * Constructor - not instantiable
+     */
+    private BatchSimulation() {
+    }
+
+    //================ public methods =================
+
+    /**
+     * Runs the batch, exits with a non zero status if a game played alone differs from its batch run.
+     *
+     * @param args number of games (default - the number of cores) and the first seed
+     * @throws InterruptedException if interrupted while waiting for the games
+     * @throws ExecutionException   if a game failed
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int numOfCores = Runtime.getRuntime().availableProcessors();
+        int numOfGames = args.length > 0 ? Integer.parseInt(args[0]) : numOfCores;
+        int firstSeed = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_FIRST_SEED;
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(numOfGames, numOfCores));
+        List<Future<Result>> games = new ArrayList<>();
+        long startNanos = System.nanoTime();
+        for (int game = 0; game < numOfGames; game++) {
+            int seed = firstSeed + game;
+            games.add(executor.submit(() -> play(seed)));
+        }
+        List<Result> results = new ArrayList<>();
+        for (Future<Result> game : games) {
+            results.add(game.get());
+        }
+        executor.shutdown();
+        System.out.printf("%d games of %d frames on %d threads in %.1f ms%n", numOfGames, NUM_OF_FRAMES,
+                Math.min(numOfGames, numOfCores), (System.nanoTime() - startNanos) / NANOS_IN_MILLI);
+        for (Result result : results) {
+            System.out.println(result);
+        }
+
+        if (!results.isEmpty()) {
+            Result alone = play(firstSeed);
+            System.out.println("played alone - " + alone);
+            if (!alone.equals(results.get(0))) {
+                System.out.println("batch check failed: a game played alone differs from its batch run");
+                System.exit(FAILURE_STATUS);
+            }
+        }
+        System.out.println("batch check passed");
+    }
+
+    //================ private methods ================
+
+    /*
+     * plays a headless game of the seed through the script and records the state it ended in
+     */
+    private static Result play(int seed) {
+        long startNanos = System.nanoTime();
+        HeadlessGame headlessGame = new HeadlessGame(WINDOW_DIMENSIONS, seed);
+        for (int frame = 0; frame < NUM_OF_FRAMES; frame++) {
+            boolean isWalkingRight = frame < NUM_OF_FRAMES / 2;
+            headlessGame.setKeyPressed(KeyEvent.VK_RIGHT, isWalkingRight);
+            headlessGame.setKeyPressed(KeyEvent.VK_LEFT, !isWalkingRight);
+            headlessGame.setKeyPressed(KeyEvent.VK_SPACE, frame % JUMP_INTERVAL_FRAMES == 0);
+            headlessGame.frame(FRAME_TIME);
+        }
+        Result result = new Result(seed, headlessGame);
+        result.millis = (System.nanoTime() - startNanos) / NANOS_IN_MILLI;
+        return result;
+    }
+
+    //================ nested classes =================
+
+    /*
+     * the state a game ended in, equal for games of the same seed
+     */
+    private static class Result {
+
+        private final int seed;
+        private final int numOfWonRounds;
+        private final int collectedBottles;
+        private final Vector2 avatarPosition;
+        private final float avatarEnergy;
+        private final int[] numOfObjects = new int[COUNTED_LAYERS.length]; //by counted layer
+        private long checksum; //of the positions of the counted objects, regardless of their order
+        private double millis; //not compared
+
+        private Result(int seed, HeadlessGame headlessGame) {
+            PepseGameManager game = headlessGame.getGame();
+            this.seed = seed;
+            this.numOfWonRounds = headlessGame.getNumOfWonRounds();
+            this.collectedBottles = game.getCollectedBottles();
+            this.avatarPosition = game.getAvatar().getTopLeftCorner();
+            this.avatarEnergy = game.getAvatar().getEnergy();
+            for (int layer = 0; layer < COUNTED_LAYERS.length; layer++) {
+                for (GameObject gameObject : game.gameObjects().objectsInLayer(COUNTED_LAYERS[layer])) {
+                    numOfObjects[layer]++;
+                    Vector2 position = gameObject.getTopLeftCorner();
+                    checksum += (long) Float.floatToIntBits(position.x()) * CHECKSUM_FACTOR +
+                            Float.floatToIntBits(position.y());
+                }
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Result)) {
+                return false;
+            }
+            Result result = (Result) other;
+            return seed == result.seed && numOfWonRounds == result.numOfWonRounds &&
+                    collectedBottles == result.collectedBottles &&
+                    avatarPosition.x() == result.avatarPosition.x() &&
+                    avatarPosition.y() == result.avatarPosition.y() && avatarEnergy == result.avatarEnergy &&
+                    Arrays.equals(numOfObjects, result.numOfObjects) && checksum == result.checksum;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(checksum);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("seed %d: %d won rounds, %d bottles, avatar at (%.1f, %.1f) with %.1f " +
+                            "energy, %d trees, %d leafs, %d falling leafs, %d bottles in the air, " +
+                            "objects %016x, %.1f ms", seed, numOfWonRounds, collectedBottles,
+                    avatarPosition.x(), avatarPosition.y(), avatarEnergy, numOfObjects[TREES],
+                    numOfObjects[LEAFS], numOfObjects[FALLING_LEAFS], numOfObjects[BOTTLES], checksum,
+                    millis);
+        }
+    }
+}
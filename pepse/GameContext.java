@@ -0,0 +1,70 @@
+package pepse;
+
+import pepse.util.AssetCache;
+import pepse.world.ParallelUpdater;
+
+import java.util.Random;
+
+/**
+ * The state a single game shares between its world objects - the seed of its world, the random of its
+ * runtime choices, its assets and the updater of its parallel objects. Every game owns its context and
+ * hands it to the objects it creates, so nothing of a game lives in static fields and several games may run
+ * in the same JVM at once.
+ *
+ * @author Tamuz Gitler
+ */
+public class GameContext {
+
+    //================ fields =========================
+
+    private final int seed;
+    private final Random random; //seeded by the seed, only used from the game thread
+    private final AssetCache assetCache;
+    private final ParallelUpdater parallelUpdater;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param seed            seed of the world of the game
+     * @param assetCache      images and sounds of the game, null for a game without assets
+     * @param parallelUpdater updates the parallel objects of the game, null for the engine
+     */
+    public GameContext(int seed, AssetCache assetCache, ParallelUpdater parallelUpdater) {
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.assetCache = assetCache;
+        this.parallelUpdater = parallelUpdater;
+    }
+
+    //================ public methods =================
+
+    /**
+     * @return seed of the world of the game
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return random of the runtime choices of the game, e.g. where bottles fall
+     */
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * @return images and sounds of the game, null for a game without assets
+     */
+    public AssetCache getAssetCache() {
+        return assetCache;
+    }
+
+    /**
+     * @return updater of the parallel objects of the game, null if the engine updates them
+     */
+    public ParallelUpdater getParallelUpdater() {
+        return parallelUpdater;
+    }
+}
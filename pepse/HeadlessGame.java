@@ -0,0 +1,144 @@
+package pepse;
+
+import danogl.gui.UserInputListener;
+import danogl.gui.WindowController;
+import danogl.util.Vector2;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.BitSet;
+
+/**
+ * Plays a headless PepseGameManager - the frames are driven by the caller instead of a window. The window
+ * controller and the input listener are stand-ins: only the keys the caller presses are pressed, message
+ * boxes are dismissed and the play again question is always answered yes. Frames are drawn into an image
+ * nobody shows.
+ *
+ * @author Tamuz Gitler
+ */
+class HeadlessGame {
+
+    //================ private constants ==============
+
+    private static final String WINDOW_DIMENSIONS_METHOD = "getWindowDimensions";
+    private static final String PLAY_AGAIN_METHOD = "openYesNoDialog";
+    private static final String KEY_PRESSED_METHOD = "isKeyPressed";
+
+    //================ fields =========================
+
+    private final PepseGameManager game;
+    private final Vector2 windowDimensions;
+    private final Graphics2D graphics;
+    private final BitSet pressedKeys = new BitSet(); //by key code
+    private int numOfWonRounds;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor - creates and initializes the game.
+     *
+     * @param windowDimensions dimensions of the window the game thinks it is drawn in
+     * @param seed             seed of the world
+     */
+    HeadlessGame(Vector2 windowDimensions, int seed) {
+        this.windowDimensions = windowDimensions;
+        this.game = new PepseGameManager(windowDimensions, seed);
+        WindowController windowController = (WindowController) Proxy.newProxyInstance(
+                WindowController.class.getClassLoader(), new Class<?>[]{WindowController.class},
+                (proxy, method, args) -> answerWindow(method));
+        UserInputListener inputListener = (UserInputListener) Proxy.newProxyInstance(
+                UserInputListener.class.getClassLoader(), new Class<?>[]{UserInputListener.class},
+                (proxy, method, args) -> readInput(method, args));
+        this.game.initializeGame(null, null, inputListener, windowController);
+        BufferedImage frameImage = new BufferedImage((int) windowDimensions.x(), (int) windowDimensions.y(),
+                BufferedImage.TYPE_INT_RGB);
+        this.graphics = frameImage.createGraphics();
+    }
+
+    //================ package-private methods ========
+
+    /**
+     * Plays a frame - updates the game by the elapsed time and renders it.
+     *
+     * @param deltaTime time elapsed since the previous frame, in seconds
+     */
+    void frame(float deltaTime) {
+        game.update(deltaTime);
+        game.render(graphics);
+    }
+
+    /**
+     * Presses or releases a key, the game sees it from the next frame on.
+     *
+     * @param keyCode   code of the key, e.g. KeyEvent.VK_RIGHT
+     * @param isPressed true to press the key, false to release it
+     */
+    void setKeyPressed(int keyCode, boolean isPressed) {
+        pressedKeys.set(keyCode, isPressed);
+    }
+
+    /**
+     * @return the played game
+     */
+    PepseGameManager getGame() {
+        return game;
+    }
+
+    /**
+     * @return number of rounds the game was won, each followed by a new round
+     */
+    int getNumOfWonRounds() {
+        return numOfWonRounds;
+    }
+
+    //================ private methods ================
+
+    /*
+     * answers a call of the game to its window
+     */
+    private Object answerWindow(Method method) {
+        switch (method.getName()) {
+            case WINDOW_DIMENSIONS_METHOD:
+                return windowDimensions;
+            case PLAY_AGAIN_METHOD:
+                numOfWonRounds++;
+                return true;
+            default:
+                return defaultValue(method.getReturnType());
+        }
+    }
+
+    /*
+     * answers a read of the input from the pressed keys
+     */
+    private Object readInput(Method method, Object[] args) {
+        if (method.getName().equals(KEY_PRESSED_METHOD)) {
+            return pressedKeys.get((Integer) args[0]);
+        }
+        return defaultValue(method.getReturnType());
+    }
+
+    /*
+     * @return false, zero or null - whatever the type defaults to
+     */
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        return null;
+    }
+}
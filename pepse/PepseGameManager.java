@@ -7,19 +7,34 @@ import danogl.components.ScheduledTask;
 import danogl.gui.*;
 import danogl.gui.rendering.Camera;
 import danogl.gui.rendering.Renderable;
-import danogl.util.Counter;
 import danogl.util.Vector2;
 import pepse.display.EnergyGraphic;
 import pepse.display.NumericBottleCounter;
-import pepse.world.RumBottle;
+import pepse.display.ObservableCounter;
+import pepse.display.RenderPipeline;
+import pepse.util.AllocationMeter;
+import pepse.util.AssetCache;
+import pepse.util.AssetPack;
+import pepse.util.AudioMixer;
+import pepse.util.QualityGovernor;
+import pepse.util.SoundEffect;
+import pepse.util.StartupTimer;
 import pepse.world.*;
+import pepse.world.chunks.ChunkCache;
+import pepse.world.chunks.ChunkGenerator;
+import pepse.world.chunks.ChunkStreamer;
+import pepse.world.chunks.CollisionWindow;
+import pepse.world.chunks.WorldPregenerator;
+import pepse.world.daynight.DayNightClock;
 import pepse.world.daynight.Night;
 import pepse.world.daynight.Sun;
 import pepse.world.daynight.SunHalo;
 import pepse.world.trees.Tree;
 
 import java.awt.*;
+import java.nio.file.Paths;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The main class of the simulator.
@@ -46,14 +61,10 @@ public class PepseGameManager extends GameManager {
 
     public static final String RUM_TAG = "rum-tag";
 
-    public static SoundReader soundReader; //global so avatar can use it to make awsome sounds
-
-    enum Direction {NO_NEED_TO_CHANGE, LEFT_DIRECTION, RIGHT_DIRECTION}
-
     //================ private constants ==============
 
     private static final int PADDING = (int) (Block.SIZE * 10);
-    private static final int seed = 754223;
+    private static final int DEFAULT_SEED = 754223;
     private static final int RUM_BOTTLE_Y_AXIS = 100;
     private static final int minTime = 5;
     private static final int maxTime = 15;
@@ -62,10 +73,37 @@ public class PepseGameManager extends GameManager {
     private static final int HALF_BLOCK_SIZE = 15;
     private static final int AVERAGE_DIVIDOR = 2;
     private static final int INIT_COUNTER_VALUE = 0;
-    private static final int BOUND_FACTOR = 2;
+    private static final int PREGENERATION_RADIUS = 0; //chunks generated beyond PADDING on each side
+    private static final int FULL_RENDER_PADDING = PADDING +
+            PREGENERATION_RADIUS * ChunkGenerator.CHUNK_WIDTH;
+    private static final int MIN_RENDER_PADDING = (int) (Block.SIZE * 2);
+    private static final int LEVEL_OF_DETAIL_DISTANCE = (int) (Block.SIZE * 4); //beyond the camera edges
+    private static final int MAX_STEPS_PER_FRAME = 5; //a slower frame drops time instead of catching up
+
+    private static final boolean PARALLEL_PREGENERATION = true;
+    private static final boolean CHUNK_CACHE_ENABLED = true;
+    private static final boolean HEIGHTFIELD_COLLISION = true; //avatar vs terrain without collision pairs
+    private static final boolean COLLISION_WINDOW = true; //only columns near dynamic objects collide
+    private static final boolean LOG_RENDER_STATS = false; //prints per layer drawn/culled counts
+    private static final boolean LOG_FRAME_ALLOCATIONS = false; //prints steady-state frames over budget
+    private static final boolean ADAPTIVE_QUALITY = true; //trades render distance and leafs for speed
+    private static final boolean LEVEL_OF_DETAIL = true; //far terrain is streamed in as merged blocks
+    private static final boolean FIXED_TIMESTEP = true; //simulation steps at SIMULATION_STEP intervals
+    private static final boolean PIPELINED_RENDERING = false; //draws a frame while the next one simulates
+    private static final boolean PARALLEL_UPDATE = true; //leafs and rum bottles update on a fork-join pool
+    private static final boolean ASSET_PACK_ENABLED = true; //assets are mapped decoded from a single file
+    private static final boolean AUDIO_MIXER_ENABLED = true; //packed sounds are mixed on a bounded voice pool
+    private static final boolean WARM_RESET = true; //play again keeps the world, only the round starts over
+    private static final boolean PROGRESSIVE_STARTUP = true; //1st frame waits only for camera terrain
+    private static final boolean LOG_STARTUP_TIMES = false; //prints time to first frame and to full world
 
     private static final float DIMENSION_FACTOR = 0.5f;
     private static final float CYCLE_LENGTH = 24;
+    private static final float GENERATION_BUDGET_MILLIS = 2; //time each frame may spend on streaming
+    private static final float RENDER_STATS_INTERVAL = 5; //seconds between render stats reports
+    private static final float FRAME_BUDGET_MILLIS = 1000f / 60;
+    private static final float SIMULATION_STEP = 1f / 60; //seconds simulated by a single step
+    private static final long ALLOCATION_BUDGET_BYTES = 256; //per frame that doesn't stream
 
     private static final Color SUN_HALO_COLOR = new Color(255, 255, 0, 20);
 
@@ -79,6 +117,9 @@ public class PepseGameManager extends GameManager {
 
     private static final String PEPSE_GAME_TITLE = "Pepse Game";
     private static final String RUM_PATH = "pepse/assets/rum_image.png";
+    private static final String CHUNK_CACHE_DIRECTORY = "pepse/cache";
+    private static final String ASSETS_DIRECTORY = "pepse/assets";
+    private static final String ASSET_PACK_PATH = "pepse/cache/assets.pack";
     private static final String NEW_GAME_MSG = "                         Welcome aboard Pirate!\n" +
             "       The games goal is to get the potato pirate drunk\n\n" +
             "                               The Pirate Rules\n" +
@@ -94,20 +135,42 @@ public class PepseGameManager extends GameManager {
     //================ fields =========================
 
     private final Vector2 windowDimensions;
+    private final int seed;
+    private final boolean isHeadless; //driven by a check or a simulation, without assets or cache file
+    private final boolean isQualityAdaptive; //a headless game keeps its quality, nobody sees its frames
+    private GameContext context; //state of the current game shared with its objects
     private Potato avatar;
+    private Vector2 initialAvatarLocation;
     private Terrain terrain;
-    private ImageReader imageReader;
+    private WorldQuery worldQuery;
+    private AssetCache assetCache; //kept across resets, assets are loaded once per process
     private WindowController windowController;
     private Tree tree;
-    private Counter collectedBottles;
+    private ChunkStreamer chunkStreamer;
+    private ChunkCache chunkCache; //holds the lock of the cache file of the seed
+    private BlockEditor blockEditor;
+    private CollisionWindow collisionWindow;
+    private final RenderCuller renderCuller = new RenderCuller();
+    private float timeSinceRenderStats;
+    private final AllocationMeter allocationMeter = new AllocationMeter();
+    private final StartupTimer startupTimer = new StartupTimer();
+    private boolean isStartupReported;
+    private long maxSteadyFrameBytes;
+    private float unsimulatedTime;
+    private RenderInterpolator renderInterpolator;
+    private ParallelUpdater parallelUpdater;
+    private RumBottleManager rumBottleManager;
+    private DayNightClock dayNightClock; //time of day of the sun, halo, night and sky
+    private final RenderPipeline renderPipeline = new RenderPipeline(SKY_LAYER, SUN_HALO_LAYER, TREE_LAYER,
+            LEAF_LAYER, FALLING_LEAF_LAYER, RUM_LAYER, BANNERS_LAYER, TERRAIN_LAYER, COLLIDABLE_TERRIAN_LAYER,
+            AVATAR_LAYER, NIGHT_LAYER, Layer.UI); //SUN_LAYER is SKY_LAYER
+    private ObservableCounter collectedBottles;
     private boolean newGame = true;
-    private Sound winningSound;
+    private SoundEffect winningSound;
 
-    /* window bounds*/
-    private int leftAvatarBound;
-    private int rightAvatarBound;
-    private int rightRenderBound;
-    private int leftRenderBound;
+    private final QualityGovernor qualityGovernor = new QualityGovernor(FRAME_BUDGET_MILLIS,
+            this::applyQualityLevel);
+    private int renderPadding = FULL_RENDER_PADDING; //resident range beyond each side of the camera
 
 
     //================ constructor ====================
@@ -117,10 +180,28 @@ public class PepseGameManager extends GameManager {
      *
      * @param windowTitle      title of windwon
      * @param windowDimensions the dimension of the game window
+     * @param seed             seed of the world
+     * @param isHeadless       true if the frames are driven by the caller instead of a window
      */
-    private PepseGameManager(String windowTitle, Vector2 windowDimensions) {
+    private PepseGameManager(String windowTitle, Vector2 windowDimensions, int seed, boolean isHeadless) {
         super(windowTitle, windowDimensions);
         this.windowDimensions = windowDimensions;
+        this.seed = seed;
+        this.isHeadless = isHeadless;
+        this.isQualityAdaptive = ADAPTIVE_QUALITY && !isHeadless;
+    }
+
+    /**
+     * Constructor of a headless game - the caller drives its frames through initializeGame, update and
+     * render. It reads no assets, so it draws no images and plays no sounds, and it doesn't use the chunk
+     * cache file, so several headless games may run in the same JVM at once. It neither adapts its quality
+     * nor budgets its streaming by time, so a game of a seed plays the same on any machine.
+     *
+     * @param windowDimensions the dimension of the game window
+     * @param seed             seed of the world
+     */
+    PepseGameManager(Vector2 windowDimensions, int seed) {
+        this(PEPSE_GAME_TITLE, windowDimensions, seed, true);
     }
 
     //================ public methods =================
@@ -141,32 +222,47 @@ public class PepseGameManager extends GameManager {
     public void initializeGame(ImageReader imageReader, SoundReader soundReader,
                                UserInputListener inputListener, WindowController windowController) {
 
-        PepseGameManager.soundReader = soundReader;
+        this.startupTimer.start();
+        this.isStartupReported = false;
 
         /* init fields*/
-        this.imageReader = imageReader;
+        if (this.assetCache == null) {
+            AssetPack assetPack = ASSET_PACK_ENABLED && !this.isHeadless ?
+                    AssetPack.open(ASSETS_DIRECTORY, Paths.get(ASSET_PACK_PATH)) : AssetPack.empty();
+            AudioMixer audioMixer = AUDIO_MIXER_ENABLED && assetPack.hasSamples() ? AudioMixer.open() : null;
+            this.assetCache = new AssetCache(imageReader, soundReader, assetPack, audioMixer);
+            this.assetCache.preloadDirectory(ASSETS_DIRECTORY, ForkJoinPool.commonPool());
+        }
         this.windowController = windowController;
-        this.winningSound = soundReader.readSound(WINNING_SOUND);
+        this.winningSound = this.assetCache.sound(WINNING_SOUND);
 
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
 
+        this.parallelUpdater = PARALLEL_UPDATE ? new ParallelUpdater(gameObjects(), ForkJoinPool.commonPool(),
+                LEAF_LAYER, FALLING_LEAF_LAYER, RUM_LAYER) : null;
+        this.context = new GameContext(this.seed, this.assetCache, this.parallelUpdater);
+
+        this.dayNightClock = new DayNightClock(this.windowDimensions, CYCLE_LENGTH);
+
         /* create game objects */
         initializeNight();
         initializeSky();
         this.terrain = initializeTerrain();
         initializeSunWithHalo();
         initializeTrees(terrain);
-        Avatar avatar = initializeAvatarFigure(imageReader, inputListener, windowController, terrain);
+        initializeWorld();
+        Avatar avatar = initializeAvatarFigure(inputListener, windowController);
         this.avatar = (Potato) avatar;
         initializeGraphicEnergyCounter();
         initializeBottleCounter();
         createRumBottles();
-
-        /*init borders*/
-        initBorders();
+        this.blockEditor = new BlockEditor(this.terrain, this.worldQuery, this.chunkStreamer, inputListener,
+                this.avatar);
 
         /* initialize all colliding layers */
         initializeCollidingLayers();
+        this.renderInterpolator = new RenderInterpolator(gameObjects(), AVATAR_LAYER, RUM_LAYER,
+                FALLING_LEAF_LAYER);
     }
 
     /**
@@ -176,19 +272,91 @@ public class PepseGameManager extends GameManager {
      */
     @Override
     public void update(float deltaTime) {
-        super.update(deltaTime);
-        if (this.newGame) {
-            displayNewGameMessage();
+        if (LOG_FRAME_ALLOCATIONS) {
+            this.allocationMeter.begin();
+        }
+        if (this.isQualityAdaptive) {
+            this.qualityGovernor.frameStarted();
+        }
+        if (PIPELINED_RENDERING) {
+            this.renderPipeline.awaitStep(); //the step started by the previous frame
+        } else {
+            simulate(deltaTime);
+        }
+        if (this.newGame && (!PROGRESSIVE_STARTUP || this.startupTimer.hasRenderedFirstFrame())) {
+            displayNewGameMessage(); //over the first frame when the startup is progressive
         }
         checkForGameEnd(deltaTime);
+        this.blockEditor.update();
+
+        float cameraLeft = camera().getTopLeftCorner().x();
+        float cameraRight = cameraLeft + camera().getDimensions().x();
+        this.chunkStreamer.requestRange((int) cameraLeft - renderPadding,
+                (int) cameraRight + renderPadding); //queues removal & creation when the chunks change
+        this.chunkStreamer.update(cameraLeft, cameraRight);
+        if (!this.isStartupReported) {
+            reportStartupTimes();
+        }
+        if (PIPELINED_RENDERING) {
+            captureFrame();
+            this.renderPipeline.startStep(() -> simulate(deltaTime));
+        }
+        if (LOG_FRAME_ALLOCATIONS && this.chunkStreamer.isIdle()) {
+            this.maxSteadyFrameBytes = Math.max(this.maxSteadyFrameBytes, this.allocationMeter.end());
+        }
+        reportRenderStats(deltaTime);
+    }
 
-        Direction direction = getDirection();
-        if (direction.equals(Direction.NO_NEED_TO_CHANGE)) {
+    /**
+     * Overrides render, culls the objects outside the camera before the frame is drawn
+     *
+     * @param g graphics context of the frame
+     */
+    @Override
+    public void render(Graphics2D g) {
+        if (PIPELINED_RENDERING) {
+            this.renderPipeline.draw(g); //drawn while the next step simulates
+            if (this.isQualityAdaptive) {
+                this.qualityGovernor.frameEnded();
+            }
+            this.startupTimer.frameRendered();
             return;
         }
-        removeObjectsInDirection(direction); //removes first so we won't overload game
-        createObjectsInDirection(direction); //then creates new object for infinite world
-        updateBorders(direction); //updates the new border accordingly
+        if (FIXED_TIMESTEP) {
+            this.renderInterpolator.beginRender(this.unsimulatedTime / SIMULATION_STEP);
+        }
+        this.renderCuller.beginFrame(camera());
+        super.render(g);
+        if (FIXED_TIMESTEP) {
+            this.renderInterpolator.endRender();
+        }
+        if (this.isQualityAdaptive) {
+            this.qualityGovernor.frameEnded();
+        }
+        this.startupTimer.frameRendered();
+    }
+
+    //================ package-private methods ========
+
+    /**
+     * @return the avatar of the game
+     */
+    Potato getAvatar() {
+        return this.avatar;
+    }
+
+    /**
+     * @return the number of rum bottles collected in the current round
+     */
+    int getCollectedBottles() {
+        return this.collectedBottles.value();
+    }
+
+    /**
+     * @return true if the last frame had no streaming work
+     */
+    boolean isStreamingIdle() {
+        return this.chunkStreamer.isIdle();
     }
 
 
@@ -198,33 +366,62 @@ public class PepseGameManager extends GameManager {
      * initialize Night gameObject
      */
     private void initializeNight() {
-        Night.create(this.gameObjects(), NIGHT_LAYER, this.windowDimensions, CYCLE_LENGTH);
+        Night.create(this.gameObjects(), NIGHT_LAYER, this.windowDimensions, this.dayNightClock);
     }
 
     /*
      * initialize Sky gameObject
      */
     private void initializeSky() {
-        Sky.create(this.gameObjects(), this.windowDimensions, SKY_LAYER);
+        Sky.create(this.gameObjects(), this.windowDimensions, SKY_LAYER, this.dayNightClock);
     }
 
     /*
      * initialize Terrain gameObject
      */
     private Terrain initializeTerrain() {
-        Terrain terrain = new Terrain(this.gameObjects(), TERRAIN_LAYER, this.windowDimensions,
-                PepseGameManager.seed);
-        terrain.createInRange(-(PADDING), (int) (this.windowDimensions.x() + PADDING));
-        return terrain;
+        return new Terrain(TERRAIN_LAYER, this.windowDimensions, this.context.getSeed(), new WorldEdits());
     }
 
     /*
      * initialize Tree gameObjects
      */
     private void initializeTrees(Terrain terrain) {
-        this.tree = new Tree(this.gameObjects(), this.windowDimensions, PepseGameManager.seed, terrain,
+        this.tree = new Tree(this.gameObjects(), this.windowDimensions, this.context.getSeed(), terrain,
                 CYCLE_LENGTH);
-        this.tree.createInRange(-PADDING, (int) windowDimensions.x() + PADDING);
+        this.tree.setParallelUpdater(this.context.getParallelUpdater());
+    }
+
+    /*
+     * generates the terrain and trees of the initial render range, chunks are described in parallel when
+     * PARALLEL_PREGENERATION is set. When PROGRESSIVE_STARTUP is set only the terrain under the camera is
+     * generated, the trees and the padding are streamed in by the first frames.
+     */
+    private void initializeWorld() {
+        if (this.chunkCache != null) {
+            this.chunkCache.close(); //a full reset reopens the file of the seed
+        }
+        this.chunkCache = CHUNK_CACHE_ENABLED && !this.isHeadless ?
+                ChunkCache.open(Paths.get(CHUNK_CACHE_DIRECTORY), this.context.getSeed(),
+                        ChunkGenerator.generatorFingerprint(this.terrain, this.tree)) :
+                ChunkCache.disabled();
+        ChunkGenerator chunkGenerator = new ChunkGenerator(this.terrain, this.tree, this.chunkCache);
+        this.worldQuery = new WorldQuery(this.terrain, this.windowDimensions);
+        this.chunkStreamer = new ChunkStreamer(chunkGenerator, gameObjects(), this.worldQuery,
+                this.isHeadless ? ChunkStreamer.UNLIMITED_BUDGET : GENERATION_BUDGET_MILLIS, COLLISION_WINDOW,
+                this.renderCuller);
+        if (LEVEL_OF_DETAIL) {
+            this.chunkStreamer.setLevelOfDetailDistance(LEVEL_OF_DETAIL_DISTANCE);
+        }
+        this.collisionWindow = new CollisionWindow(this.chunkStreamer, gameObjects(), FALLING_LEAF_LAYER);
+        WorldPregenerator pregenerator = new WorldPregenerator(chunkGenerator, ForkJoinPool.commonPool(),
+                PARALLEL_PREGENERATION);
+        if (PROGRESSIVE_STARTUP) {
+            this.chunkStreamer.pregenerateTerrain(pregenerator, 0, (int) windowDimensions.x());
+            return;
+        }
+        this.chunkStreamer.pregenerate(pregenerator, -renderPadding,
+                (int) windowDimensions.x() + renderPadding);
     }
 
     /*
@@ -232,22 +429,25 @@ public class PepseGameManager extends GameManager {
      */
     private void initializeSunWithHalo() {
         GameObject sun = Sun.create(this.gameObjects(), SUN_LAYER, this.windowDimensions,
-                CYCLE_LENGTH + 1);
-        GameObject sunHalo = SunHalo.create(this.gameObjects(), SUN_HALO_LAYER, sun, SUN_HALO_COLOR);
-        sunHalo.addComponent((float deltaTime) -> sunHalo.setCenter(sun.getCenter()));
+                this.dayNightClock);
+        SunHalo.create(this.gameObjects(), SUN_HALO_LAYER, sun, SUN_HALO_COLOR, this.dayNightClock);
     }
 
     /*
      * initialize avatar gameObject and camera to follow him
      */
-    private Avatar initializeAvatarFigure(ImageReader imageReader, UserInputListener inputListener,
+    private Avatar initializeAvatarFigure(UserInputListener inputListener,
                                           WindowController
-                                                  windowController, Terrain terrain) {
+                                                  windowController) {
 
         Vector2 initialAvatarLocation = new Vector2(windowDimensions.x() / AVATAR_LOCATION_FACTOR,
-                terrain.groundHeightAt(windowDimensions.x() / AVATAR_LOCATION_FACTOR) - Block.SIZE);
+                worldQuery.surfaceAt(windowDimensions.x() / AVATAR_LOCATION_FACTOR) - Block.SIZE);
+        this.initialAvatarLocation = initialAvatarLocation;
         Avatar avatar = Avatar.create(this.gameObjects(), AVATAR_LAYER, initialAvatarLocation,
-                inputListener, imageReader);
+                inputListener, this.context);
+        if (HEIGHTFIELD_COLLISION) {
+            ((Potato) avatar).useHeightfieldCollision(new HeightfieldCollider(this.worldQuery));
+        }
         setCamera(new Camera(avatar,
                 windowController.getWindowDimensions().mult(DIMENSION_FACTOR).subtract(initialAvatarLocation),
                 windowController.getWindowDimensions(), windowController.getWindowDimensions()));
@@ -261,12 +461,12 @@ public class PepseGameManager extends GameManager {
     private void initializeGraphicEnergyCounter() {
         EnergyGraphic graphicEnergyCounter = new EnergyGraphic(
                 PepseGameManager.numericEnergyLocation, PepseGameManager.graphicDimension,
-                this.avatar, this.imageReader);
+                this.avatar, this.assetCache);
         gameObjects().addGameObject(graphicEnergyCounter, PepseGameManager.BANNERS_LAYER);
     }
 
     private void initializeBottleCounter() {
-        this.collectedBottles = new Counter(INIT_COUNTER_VALUE);
+        this.collectedBottles = new ObservableCounter(INIT_COUNTER_VALUE);
         NumericBottleCounter numericBottleCounter = new NumericBottleCounter(
                 PepseGameManager.bottleCounterLocation, PepseGameManager.textDimension,
                 this.collectedBottles);
@@ -278,7 +478,8 @@ public class PepseGameManager extends GameManager {
      * initialize all wanted layers to collide / not collide with other layers
      */
     private void initializeCollidingLayers() {
-        gameObjects().layers().shouldLayersCollide(AVATAR_LAYER, COLLIDABLE_TERRIAN_LAYER, true);
+        gameObjects().layers().shouldLayersCollide(AVATAR_LAYER, COLLIDABLE_TERRIAN_LAYER,
+                !HEIGHTFIELD_COLLISION); //the heightfield grounds the avatar
         gameObjects().layers().shouldLayersCollide(AVATAR_LAYER, TREE_LAYER, true);
         gameObjects().layers().shouldLayersCollide(LEAF_LAYER, TERRAIN_LAYER, false);
         gameObjects().layers().shouldLayersCollide(LEAF_LAYER, COLLIDABLE_TERRIAN_LAYER, false);
@@ -304,92 +505,17 @@ public class PepseGameManager extends GameManager {
 
     }
 
-    /*
-     * removes all gameObject in given range.
-     * @param minX to remove
-     * @param maxX to remove
-     */
-    private void removeObjectsInDirection(Direction direction) {
-        if (!gameObjects().isLayerEmpty(TERRAIN_LAYER)) {
-            removeObjectsFromLayer(direction, TERRAIN_LAYER);
-        }
-        if (!gameObjects().isLayerEmpty(COLLIDABLE_TERRIAN_LAYER)) {
-            removeObjectsFromLayer(direction, COLLIDABLE_TERRIAN_LAYER);
-        }
-        if (!gameObjects().isLayerEmpty(TREE_LAYER)) {
-            removeObjectsFromLayer(direction, TREE_LAYER);
-        }
-        if (!gameObjects().isLayerEmpty(LEAF_LAYER)) {
-            removeObjectsFromLayer(direction, LEAF_LAYER);
-        }
-        if (!gameObjects().isLayerEmpty(FALLING_LEAF_LAYER)) {
-            removeObjectsFromLayer(direction, FALLING_LEAF_LAYER);
-        }
-    }
-
-    /*
-     * removes all game object from given layer
-     * @param minX to remove
-     * @param maxX to remove
-     * @param layerToRemoveFrom the layer to remove gameojbects from
-     */
-    private void removeObjectsFromLayer(Direction direction, int layerToRemoveFrom) {
-        if (direction.equals(Direction.RIGHT_DIRECTION)) {
-            removeRightObjects(layerToRemoveFrom);
-            return;
-        }
-        removeLeftObjects(layerToRemoveFrom); //direction equals left
-    }
-
-    /*
-     * remove all game objects in given layer that are out of bound
-     * @param layerToRemoveFrom layer to remove objects from
-     */
-    private void removeRightObjects(int layerToRemoveFrom) {
-        Iterable<GameObject> iter = gameObjects().objectsInLayer(layerToRemoveFrom);
-        for (GameObject obj : iter) {
-            float obj_x_location = obj.getCenter().x();
-            if (obj_x_location < leftRenderBound + PADDING) {
-                this.gameObjects().removeGameObject(obj, layerToRemoveFrom);
-            }
-        }
-    }
-
-    /*
-     * remove all game objects in given layer that are out of bound
-     * @param layerToRemoveFrom layer to remove objects from
-     */
-    private void removeLeftObjects(int layerToRemoveFrom) {
-        Iterable<GameObject> iter = gameObjects().objectsInLayer(layerToRemoveFrom);
-        for (GameObject obj : iter) {
-            float obj_x_location = obj.getCenter().x();
-            if (obj_x_location > rightRenderBound - PADDING) {
-                this.gameObjects().removeGameObject(obj, layerToRemoveFrom);
-            }
-        }
-    }
-
-
     /*
      * creates falling rum bottles
      */
     private void createRumBottles() {
-        Renderable rumImage = imageReader.readImage(RUM_PATH, true);
-
-        Runnable makeRumFall = () -> {
-
-            int rumBottlePosition = getBottleXPosition();
-            Vector2 rumStartingLocation = Vector2.of(rumBottlePosition, RUM_BOTTLE_Y_AXIS);
-            RumBottle rumBottle = new RumBottle(rumStartingLocation, RUM_BOTTLE_DIMENSION, rumImage,
-                    gameObjects(), PepseGameManager.soundReader, this.collectedBottles);
-            rumBottle.setTag(RUM_TAG);
-            rumBottle.setVelocity(RUM_BOTTLE_VELOCITY);
-            this.gameObjects().addGameObject(rumBottle, RUM_LAYER);
-            gameObjects().layers().shouldLayersCollide(RUM_LAYER, AVATAR_LAYER, true);
-            gameObjects().layers().shouldLayersCollide(RUM_LAYER, COLLIDABLE_TERRIAN_LAYER, true);
-        };
-        Random rand = new Random(seed);
-        int timeTillBottleFalls = rand.nextInt(maxTime - minTime) + minTime;
+        Renderable rumImage = this.assetCache.image(RUM_PATH);
+        this.rumBottleManager = new RumBottleManager(gameObjects(), this.worldQuery, rumImage,
+                RUM_BOTTLE_DIMENSION, RUM_BOTTLE_VELOCITY, this.collectedBottles, this.context);
+
+        Runnable makeRumFall = () -> this.rumBottleManager.spawn(
+                Vector2.of(getBottleXPosition(), RUM_BOTTLE_Y_AXIS));
+        int timeTillBottleFalls = this.context.getRandom().nextInt(maxTime - minTime) + minTime;
         ScheduledTask bottleScheduler = new ScheduledTask(
                 this.avatar,
                 timeTillBottleFalls,
@@ -401,7 +527,9 @@ public class PepseGameManager extends GameManager {
      * displays message of new game with instructions
      */
     private void displayNewGameMessage() {
+        this.startupTimer.pause(); //the player reading isn't part of the startup
         windowController.showMessageBox(NEW_GAME_MSG);
+        this.startupTimer.resume();
         this.newGame = false;
     }
 
@@ -428,8 +556,7 @@ public class PepseGameManager extends GameManager {
     private int getBottleXPosition() {
 
         int avatarXLocation = (int) this.avatar.getCenter().x();
-        Random rand = new Random(); //no seed sent to random because it will make the bottle fall in same
-        // place
+        Random rand = this.context.getRandom(); //the game's sequence - every bottle falls somewhere else
         int roundedAvatarXLocation = roundAccordingToBlock(avatarXLocation);
         int roundedLeftCorner = roundAccordingToBlock((int) (roundedAvatarXLocation -
                 this.windowDimensions.x() / AVERAGE_DIVIDOR));
@@ -454,14 +581,34 @@ public class PepseGameManager extends GameManager {
         if (!prompt.isEmpty()) {
             prompt += PLAY_AGAIN_MSG;
             if (windowController.openYesNoDialog(prompt)) {
-                windowController.resetGame();
+                if (WARM_RESET) {
+                    startNewRound();
+                } else {
+                    windowController.resetGame();
+                }
                 this.newGame = true;
             } else {
+                this.assetCache.close(); //stops the mixing thread with the window
                 windowController.closeWindow();
             }
         }
     }
 
+    /*
+     * starts a new round in the world of the previous one - the score, the falling bottles, the avatar and
+     * the time of day start over, while the streamed chunks, the pools and the loaded assets are kept
+     */
+    private void startNewRound() {
+        this.collectedBottles.reset();
+        this.rumBottleManager.clear();
+        this.avatar.reset(this.initialAvatarLocation);
+        this.dayNightClock.reset();
+        this.unsimulatedTime = 0;
+        if (FIXED_TIMESTEP) {
+            this.renderInterpolator.beforeStep(camera()); //the avatar isn't blended from where it was
+        }
+    }
+
     /*
      * checks if player has won, meaning he got the potato pirate drunk!
      *
@@ -471,69 +618,124 @@ public class PepseGameManager extends GameManager {
     private String checkIfPlayerHasWon(String prompt) {
         if (this.collectedBottles.value() >= WINNING_BAR) {
             prompt = WINNING_MSG;
-            this.winningSound.play();
+            this.winningSound.play(SoundEffect.HIGH_PRIORITY);
 
         }
         return prompt;
     }
 
     /*
-     * inits the values of the borders
+     * advances the game objects by the elapsed time - in whole SIMULATION_STEPs when FIXED_TIMESTEP is set,
+     * so the game behaves the same at every frame rate. The remainder is carried to the next frame.
      */
-    private void initBorders() {
+    private void simulate(float deltaTime) {
+        if (!FIXED_TIMESTEP) {
+            step(deltaTime);
+            updateCollisionWindow();
+            return;
+        }
+        this.unsimulatedTime = Math.min(this.unsimulatedTime + deltaTime,
+                MAX_STEPS_PER_FRAME * SIMULATION_STEP);
+        while (this.unsimulatedTime >= SIMULATION_STEP) {
+            this.renderInterpolator.beforeStep(camera());
+            step(SIMULATION_STEP);
+            updateCollisionWindow();
+            this.unsimulatedTime -= SIMULATION_STEP;
+        }
+    }
 
-        this.leftAvatarBound = (int) (windowDimensions.x() / BOUND_FACTOR) - PADDING;
-        this.rightAvatarBound = (int) (windowDimensions.x() / BOUND_FACTOR) + PADDING;
-        this.leftRenderBound = -PADDING;
-        this.rightRenderBound = (int) windowDimensions.x() + PADDING;
+    /*
+     * advances the game objects by a single step - the time of day first, then leafs and rum bottles, in
+     * parallel when PARALLEL_UPDATE is set, then the rest of the objects and the collisions by the engine,
+     * then the bottles that reached the terrain are shattered
+     */
+    private void step(float deltaTime) {
+        this.dayNightClock.update(deltaTime);
+        if (this.parallelUpdater != null) {
+            this.parallelUpdater.update(deltaTime);
+        }
+        super.update(deltaTime);
+        this.rumBottleManager.update(deltaTime);
     }
 
     /*
-     * gets the direction of avatar according to left/right bounds
-     * @return Direction
+     * captures the frame to draw into the render pipeline, blended between the last two steps
      */
-    private Direction getDirection() {
-        Direction direction = Direction.NO_NEED_TO_CHANGE;
-        float avatarXPosition = this.avatar.getCenter().x();
-        if (avatarXPosition > this.rightAvatarBound) {
-            direction = Direction.RIGHT_DIRECTION;
+    private void captureFrame() {
+        if (FIXED_TIMESTEP) {
+            this.renderInterpolator.beginRender(this.unsimulatedTime / SIMULATION_STEP);
         }
-        if (avatarXPosition < this.leftAvatarBound) {
-            direction = Direction.LEFT_DIRECTION;
+        this.renderCuller.beginFrame(camera()); //batches bake only while their chunk is inside the camera
+        this.renderPipeline.capture(gameObjects(), camera());
+        if (FIXED_TIMESTEP) {
+            this.renderInterpolator.endRender();
         }
-        return direction;
     }
 
     /*
-     * creates objects in given Direction
-     * @param direction
+     * prints the drawn/culled counts of the culled layers, and the most a frame that didn't stream
+     * allocated when it was over budget, every RENDER_STATS_INTERVAL seconds
      */
-    private void createObjectsInDirection(Direction direction) {
-        int minRange = rightRenderBound;
-        int maxRange = rightRenderBound + PADDING;
-        if (direction.equals(Direction.LEFT_DIRECTION)) {
-            minRange = leftRenderBound - PADDING;
-            maxRange = leftRenderBound;
+    private void reportRenderStats(float deltaTime) {
+        if (!LOG_RENDER_STATS && !LOG_FRAME_ALLOCATIONS) {
+            return;
+        }
+        this.timeSinceRenderStats += deltaTime;
+        if (this.timeSinceRenderStats < RENDER_STATS_INTERVAL) {
+            return;
+        }
+        this.timeSinceRenderStats = 0;
+        if (LOG_RENDER_STATS) {
+            System.out.println(this.renderCuller.report());
         }
-        this.tree.createInRange(minRange, maxRange);
-        this.terrain.createInRange(minRange, maxRange);
+        if (LOG_FRAME_ALLOCATIONS && this.maxSteadyFrameBytes > ALLOCATION_BUDGET_BYTES) {
+            System.out.printf("steady-state frame allocated %d bytes, budget %d bytes%n",
+                    this.maxSteadyFrameBytes, ALLOCATION_BUDGET_BYTES);
+        }
+        this.maxSteadyFrameBytes = 0;
     }
 
+    /*
+     * records when the initial world became resident - the first frame without streaming work - and once
+     * the first frame was drawn too, prints both times when LOG_STARTUP_TIMES is set
+     */
+    private void reportStartupTimes() {
+        if (this.chunkStreamer.isIdle()) {
+            this.startupTimer.worldCompleted();
+        }
+        if (!this.startupTimer.isWorldComplete() || !this.startupTimer.hasRenderedFirstFrame()) {
+            return;
+        }
+        this.isStartupReported = true;
+        if (LOG_STARTUP_TIMES) {
+            System.out.println(this.startupTimer.report());
+        }
+    }
 
     /*
-     * update borders according to direction
-     * @param direction right/left
+     * keeps the terrain near bottles, falling leaves and - unless it uses the heightfield - the avatar
+     * collidable
      */
-    private void updateBorders(Direction direction) {
-        int borderUpdate = PADDING; //assuming direction equals right, then will add padding
-        if (direction.equals(Direction.LEFT_DIRECTION)) {
-            borderUpdate = -PADDING; //direction equals left, then will subtract padding
+    private void updateCollisionWindow() {
+        if (!COLLISION_WINDOW) {
+            return;
         }
-        leftAvatarBound += borderUpdate;
-        rightAvatarBound += borderUpdate;
-        leftRenderBound += borderUpdate;
-        rightRenderBound += borderUpdate;
+        if (HEIGHTFIELD_COLLISION) {
+            this.collisionWindow.update();
+            return;
+        }
+        this.collisionWindow.update(this.avatar);
+    }
+
+    /*
+     * applies a quality level chosen by the governor - new render padding and leaf quality
+     */
+    private void applyQualityLevel(QualityGovernor.Level level) {
+        this.renderPadding = Math.max(MIN_RENDER_PADDING,
+                (int) (FULL_RENDER_PADDING * level.getPaddingFactor()));
+        this.tree.setLeafQuality(level.getLeafDensity(), level.isLeafAnimated());
     }
+
     //==================== main ====================
 
     /**
@@ -542,7 +744,8 @@ public class PepseGameManager extends GameManager {
      * @param args This argument should not be used.
      */
     public static void main(String[] args) {
-        PepseGameManager gameManager = new PepseGameManager(PEPSE_GAME_TITLE, GameWindowDimentions);
+        PepseGameManager gameManager = new PepseGameManager(PEPSE_GAME_TITLE, GameWindowDimentions,
+                DEFAULT_SEED, false);
         gameManager.run();
     }
 
@@ -2,13 +2,14 @@ package pepse.display;
 
 import danogl.GameObject;
 import danogl.components.CoordinateSpace;
-import danogl.gui.ImageReader;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.util.AssetCache;
 import pepse.world.Potato;
 
 /**
- * Display a graphic object on the game window showing a numeric count of lives left.
+ * Display a graphic object on the game window showing a numeric count of lives left. The bar is bound to
+ * the avatar energy and only changes when the energy crosses to another bar.
  *
  * @author Tamuz Gitler
  */
@@ -35,9 +36,8 @@ public class EnergyGraphic extends GameObject {
 
     //================ fields =========================
 
-    private final Potato avatar;
-    private final ImageReader imageReader;
-    Renderable[] barRenderabels;
+    private final Renderable[] barRenderabels;
+    private int shownBar = FULL_ENERGY_BAR;
 
     //================ constructor ====================
 
@@ -49,60 +49,56 @@ public class EnergyGraphic extends GameObject {
      *                    //     *                             right, aligned in hight.
      * @param dimensions  of widgets to be displayed.
      * @param avatar      for getting his energy
-     * @param imageReader to read energy images
+     * @param assetCache  shared images of the game, holding the energy images
      */
     public EnergyGraphic(
             Vector2 position,
             Vector2 dimensions,
             Potato avatar,
-            ImageReader imageReader) {
+            AssetCache assetCache) {
 
         super(position,
                 dimensions,
-                imageReader.readImage(BARS_PATH[FULL_ENERGY_BAR],
-                        true));
+                assetCache.image(BARS_PATH[FULL_ENERGY_BAR]));
 
         /*init fields*/
-        this.avatar = avatar;
-        this.imageReader = imageReader;
         this.barRenderabels = new Renderable[NUM_OF_BARS];
 
-        createBarsRenderables();
+        createBarsRenderables(assetCache);
+        this.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES); //stays in place on the screen
+        avatar.getObservableEnergy().bind(energy -> showBar(getBarRenderableNum((float) energy)));
     }
 
-    //================ public methods =================
+    //================ private methods ================
 
-    /**
-     * Overrides update, switches beetwen energy pictures
-     *
-     * @param deltaTime time between updates
+    /*
+     * switches to the picture of the given bar, if it isn't shown already
      */
-    @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-        int barRenderableNum = getBarRenderableNum();
+    private void showBar(int barRenderableNum) {
+        if (barRenderableNum == this.shownBar) {
+            return;
+        }
+        this.shownBar = barRenderableNum;
         this.renderer().setRenderable(this.barRenderabels[barRenderableNum]);
-        this.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES); //sky will follow the screen
     }
 
-    //================ private methods ================
-
     /*
      * decides which barRendereable to display coresponding to avatar energy.
+     * @param energy avatar energy
      * @return barRenderableNum
      */
-    private int getBarRenderableNum() {
+    private int getBarRenderableNum(float energy) {
         int barRenderableNum = EMPTY_BAR;
-        if (this.avatar.getEnergy() >= QUARTER_BAR && this.avatar.getEnergy() < HALF_BAR) {
+        if (energy >= QUARTER_BAR && energy < HALF_BAR) {
             barRenderableNum = FIRST_BAR;
         }
-        if (this.avatar.getEnergy() >= HALF_BAR && this.avatar.getEnergy() < THREE_QUARTER_BAR) {
+        if (energy >= HALF_BAR && energy < THREE_QUARTER_BAR) {
             barRenderableNum = SECOND_BAR;
         }
-        if (this.avatar.getEnergy() >= THREE_QUARTER_BAR && this.avatar.getEnergy() < FULL_BAR) {
+        if (energy >= THREE_QUARTER_BAR && energy < FULL_BAR) {
             barRenderableNum = THIRD_BAR;
         }
-        if (this.avatar.getEnergy() == FULL_BAR) {
+        if (energy == FULL_BAR) {
             barRenderableNum = FOURTH_BAR;
         }
         return barRenderableNum;
@@ -111,9 +107,9 @@ public class EnergyGraphic extends GameObject {
     /*
      * inits barsRenderables for later use
      */
-    private void createBarsRenderables() {
+    private void createBarsRenderables(AssetCache assetCache) {
         for (int i = 0; i < NUM_OF_BARS; i++) {
-            this.barRenderabels[i] = imageReader.readImage(BARS_PATH[i], true);
+            this.barRenderabels[i] = assetCache.image(BARS_PATH[i]);
         }
     }
 }
@@ -3,13 +3,14 @@ package pepse.display;
 import danogl.GameObject;
 import danogl.components.CoordinateSpace;
 import danogl.gui.rendering.TextRenderable;
-import danogl.util.Counter;
 import danogl.util.Vector2;
 
 import java.awt.*;
 
 /**
- * Display a graphic object on the game window showing a numeric count of lives left.
+ * Display a graphic object on the game window showing a numeric count of lives left. The text is bound to
+ * the counter and only changes when the counter does - a new text renderable replaces the old one, so a
+ * frame captured for drawing keeps the text it was captured with.
  *
  * @author Tamuz Gitler
  */
@@ -17,7 +18,6 @@ public class NumericBottleCounter extends GameObject {
 
     //================ fields =========================
 
-    private final Counter collectedBottles;
     private static final String POINTS_TEXT = "Points ";
 
     //================ constructor ====================
@@ -34,26 +34,22 @@ public class NumericBottleCounter extends GameObject {
     public NumericBottleCounter(
             Vector2 topLeftCorner,
             Vector2 dimensions
-            , Counter collectedBottles) {
+            , ObservableCounter collectedBottles) {
 
-        super(topLeftCorner, dimensions, new TextRenderable(POINTS_TEXT + collectedBottles.value()));
-        this.collectedBottles = collectedBottles;
+        super(topLeftCorner, dimensions, null);
+        showValue(collectedBottles.value());
+        this.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        collectedBottles.bind(this::showValue);
     }
 
-    //================ public methods =================
+    //================ private methods ================
 
-    /**
-     * Overrides update, removes text from gameObjectCollection
-     *
-     * @param deltaTime time between updates
+    /*
+     * replaces the text renderable by a copy showing the value, the old one is never changed
      */
-    @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-        TextRenderable text = new TextRenderable(POINTS_TEXT + collectedBottles.value());
+    private void showValue(int value) {
+        TextRenderable text = new TextRenderable(POINTS_TEXT + value);
         text.setColor(Color.BLACK);
         this.renderer().setRenderable(text);
-        this.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
     }
-
 }
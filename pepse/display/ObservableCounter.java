@@ -0,0 +1,97 @@
+package pepse.display;
+
+import danogl.util.Counter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * A counter that tells the HUD elements bound to it when its value changes, so they re-render only then
+ * instead of every frame.
+ *
+ * @author Tamuz Gitler
+ */
+public class ObservableCounter extends Counter {
+
+    //================ fields =========================
+
+    private final List<IntConsumer> listeners = new ArrayList<>();
+    private int lastValue;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param initialValue value the counter starts with
+     */
+    public ObservableCounter(int initialValue) {
+        super(initialValue);
+        this.lastValue = initialValue;
+    }
+
+    //================ public methods =================
+
+    /**
+     * Calls the listener with the current value, and again whenever the value changes.
+     *
+     * @param listener called with the new value
+     */
+    public void bind(IntConsumer listener) {
+        listeners.add(listener);
+        listener.accept(value());
+    }
+
+    /**
+     * increases the value by one
+     */
+    @Override
+    public void increment() {
+        super.increment();
+        notifyIfChanged();
+    }
+
+    /**
+     * decreases the value by one
+     */
+    @Override
+    public void decrement() {
+        super.decrement();
+        notifyIfChanged();
+    }
+
+    /**
+     * @param delta amount to add to the value
+     */
+    @Override
+    public void increaseBy(int delta) {
+        super.increaseBy(delta);
+        notifyIfChanged();
+    }
+
+    /**
+     * sets the value back to zero
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        notifyIfChanged();
+    }
+
+    //================ private methods ================
+
+    /*
+     * calls the listeners if the value differs from the one they were last called with
+     */
+    private void notifyIfChanged() {
+        int value = value();
+        if (value == lastValue) {
+            return;
+        }
+        lastValue = value;
+        for (int listener = 0; listener < listeners.size(); listener++) {
+            listeners.get(listener).accept(value);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package pepse.display;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+
+/**
+ * A float value that tells the HUD elements bound to it when it changes, so they re-render only then
+ * instead of every frame.
+ *
+ * @author Tamuz Gitler
+ */
+public class ObservableFloat {
+
+    //================ fields =========================
+
+    private final List<DoubleConsumer> listeners = new ArrayList<>();
+    private float value;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param initialValue value to start with
+     */
+    public ObservableFloat(float initialValue) {
+        this.value = initialValue;
+    }
+
+    //================ public methods =================
+
+    /**
+     * Calls the listener with the current value, and again whenever the value changes.
+     *
+     * @param listener called with the new value
+     */
+    public void bind(DoubleConsumer listener) {
+        listeners.add(listener);
+        listener.accept(value);
+    }
+
+    /**
+     * @return the current value
+     */
+    public float get() {
+        return value;
+    }
+
+    /**
+     * Sets the value, calling the listeners if it changed.
+     *
+     * @param value the new value
+     */
+    public void set(float value) {
+        if (value == this.value) {
+            return;
+        }
+        this.value = value;
+        for (int listener = 0; listener < listeners.size(); listener++) {
+            listeners.get(listener).accept(value);
+        }
+    }
+}
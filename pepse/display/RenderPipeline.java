@@ -0,0 +1,148 @@
+package pepse.display;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.world.Block;
+import pepse.world.chunks.StaticBatch;
+
+import java.awt.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Overlaps simulating a frame with drawing the previous one. Between simulation steps the renderable
+ * state of the game objects is captured into a back snapshot, the snapshots are swapped, and the front
+ * snapshot is drawn while the next step runs on a simulation thread.
+ *
+ * @author Tamuz Gitler
+ */
+public class RenderPipeline {
+
+    //================ private constants ==============
+
+    private static final String SIMULATION_THREAD_NAME = "pepse-simulation";
+
+    //================ fields =========================
+
+    private final int[] layersInDrawOrder;
+    private final ExecutorService simulationThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, SIMULATION_THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+    private RenderSnapshot frontSnapshot = new RenderSnapshot();
+    private RenderSnapshot backSnapshot = new RenderSnapshot();
+    private Future<?> pendingStep;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param layersInDrawOrder every layer that should be drawn, from the back to the front
+     */
+    public RenderPipeline(int... layersInDrawOrder) {
+        this.layersInDrawOrder = layersInDrawOrder;
+    }
+
+    //================ public methods =================
+
+    /**
+     * Runs a simulation step on the simulation thread. The game objects must not be touched until
+     * awaitStep returns.
+     *
+     * @param step the simulation step
+     */
+    public void startStep(Runnable step) {
+        pendingStep = simulationThread.submit(step);
+    }
+
+    /**
+     * Waits for the running simulation step, if any, to finish.
+     */
+    public void awaitStep() {
+        if (pendingStep == null) {
+            return;
+        }
+        try {
+            pendingStep.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("simulation step failed", e.getCause());
+        } finally {
+            pendingStep = null;
+        }
+    }
+
+    /**
+     * Captures the visible game objects into the back snapshot and makes it the snapshot that is drawn.
+     * Must be called while no simulation step runs.
+     *
+     * @param gameObjects The collection of all participating game objects.
+     * @param camera      camera the frame is drawn through
+     */
+    public void capture(GameObjectCollection gameObjects, Camera camera) {
+        Vector2 cameraTopLeftCorner = camera.getTopLeftCorner();
+        Vector2 cameraDimensions = camera.getDimensions();
+        backSnapshot.reset(cameraTopLeftCorner);
+        for (int layer : layersInDrawOrder) {
+            for (GameObject gameObject : gameObjects.objectsInLayer(layer)) {
+                if (gameObject instanceof StaticBatch && !((StaticBatch) gameObject).prepareRender()) {
+                    continue;
+                }
+                if (gameObject instanceof Block && (((Block) gameObject).isDrawnByBatch() ||
+                        ((Block) gameObject).isGroupOffCamera())) {
+                    continue; //registered for collisions only, or culled with its chunk
+                }
+                Renderable renderable = gameObject.renderer().getRenderable();
+                if (renderable == null) {
+                    continue;
+                }
+                boolean isOnCamera = gameObject.getCoordinateSpace() == CoordinateSpace.CAMERA_COORDINATES;
+                if (!isOnCamera && !intersects(gameObject, cameraTopLeftCorner, cameraDimensions)) {
+                    continue; //culled
+                }
+                backSnapshot.add(renderable, gameObject.getTopLeftCorner(), gameObject.getDimensions(),
+                        gameObject.renderer().getRenderableAngle(),
+                        gameObject.renderer().isFlippedHorizontally(),
+                        gameObject.renderer().getOpaqueness(), isOnCamera);
+            }
+        }
+        synchronized (this) {
+            RenderSnapshot captured = backSnapshot;
+            backSnapshot = frontSnapshot;
+            frontSnapshot = captured;
+        }
+    }
+
+    /**
+     * draws the last captured snapshot
+     *
+     * @param g graphics context to draw to
+     */
+    public synchronized void draw(Graphics2D g) {
+        frontSnapshot.draw(g);
+    }
+
+    //================ private methods ================
+
+    /*
+     * @return true if the object intersects the camera rectangle
+     */
+    private static boolean intersects(GameObject gameObject, Vector2 cameraTopLeftCorner,
+                                      Vector2 cameraDimensions) {
+        Vector2 topLeftCorner = gameObject.getTopLeftCorner();
+        Vector2 dimensions = gameObject.getDimensions();
+        return topLeftCorner.x() < cameraTopLeftCorner.x() + cameraDimensions.x() &&
+                topLeftCorner.x() + dimensions.x() > cameraTopLeftCorner.x() &&
+                topLeftCorner.y() < cameraTopLeftCorner.y() + cameraDimensions.y() &&
+                topLeftCorner.y() + dimensions.y() > cameraTopLeftCorner.y();
+    }
+}
@@ -0,0 +1,122 @@
+package pepse.display;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * The renderable state of a single frame - what to draw, where, and how - copied out of the game objects
+ * so it can be drawn while the game objects keep changing. Positions are kept as primitive coordinates and
+ * drawn by translating the graphics context, so drawing a frame allocates nothing. The renderables and
+ * dimensions are kept by reference, so they must be immutable - objects replace their renderable instead
+ * of changing it.
+ *
+ * @author Tamuz Gitler
+ */
+public class RenderSnapshot {
+
+    //================ private constants ==============
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int GROWTH_FACTOR = 2;
+    private static final int COORDINATES_PER_ENTRY = 2;
+
+    //================ fields =========================
+
+    private Renderable[] renderables = new Renderable[INITIAL_CAPACITY];
+    private float[] coordinates = new float[INITIAL_CAPACITY * COORDINATES_PER_ENTRY]; //x, y
+    private Vector2[] dimensions = new Vector2[INITIAL_CAPACITY];
+    private float[] angles = new float[INITIAL_CAPACITY];
+    private float[] opacities = new float[INITIAL_CAPACITY];
+    private boolean[] isFlipped = new boolean[INITIAL_CAPACITY];
+    private boolean[] isOnCamera = new boolean[INITIAL_CAPACITY]; //camera coordinates, e.g. the sky
+    private int size;
+    private float cameraX;
+    private float cameraY;
+
+    //================ public methods =================
+
+    /**
+     * empties the snapshot and sets the camera it is drawn through
+     *
+     * @param cameraTopLeftCorner top left corner of the camera in the world
+     */
+    public void reset(Vector2 cameraTopLeftCorner) {
+        Arrays.fill(renderables, 0, size, null);
+        Arrays.fill(dimensions, 0, size, null);
+        size = 0;
+        cameraX = cameraTopLeftCorner.x();
+        cameraY = cameraTopLeftCorner.y();
+    }
+
+    /**
+     * adds an entry to draw, entries are drawn in the order they were added
+     *
+     * @param renderable    what to draw, must not change afterwards
+     * @param topLeftCorner where to draw it, copied
+     * @param dimensions    size to draw it in, immutable
+     * @param angle         angle of the renderable in degrees, counter clockwise
+     * @param isFlipped     true if the renderable is flipped horizontally
+     * @param opacity       opacity between 0 and 1
+     * @param isOnCamera    true if the position is in camera coordinates rather than world coordinates
+     */
+    public void add(Renderable renderable, Vector2 topLeftCorner, Vector2 dimensions, float angle,
+                    boolean isFlipped, float opacity, boolean isOnCamera) {
+        if (size == renderables.length) {
+            grow();
+        }
+        int entry = size * COORDINATES_PER_ENTRY;
+        renderables[size] = renderable;
+        coordinates[entry] = topLeftCorner.x();
+        coordinates[entry + 1] = topLeftCorner.y();
+        this.dimensions[size] = dimensions;
+        angles[size] = angle;
+        this.isFlipped[size] = isFlipped;
+        opacities[size] = opacity;
+        this.isOnCamera[size] = isOnCamera;
+        size++;
+    }
+
+    /**
+     * draws every entry of the snapshot - the graphics context is translated to the entry and the
+     * renderable is drawn at the origin, so no position is allocated
+     *
+     * @param g graphics context to draw to
+     */
+    public void draw(Graphics2D g) {
+        for (int i = 0; i < size; i++) {
+            int entry = i * COORDINATES_PER_ENTRY;
+            double x = isOnCamera[i] ? coordinates[entry] : coordinates[entry] - cameraX;
+            double y = isOnCamera[i] ? coordinates[entry + 1] : coordinates[entry + 1] - cameraY;
+            g.translate(x, y);
+            renderables[i].render(g, Vector2.ZERO, dimensions[i], angles[i], isFlipped[i], false,
+                    opacities[i]);
+            g.translate(-x, -y);
+        }
+    }
+
+    /**
+     * @return number of entries in the snapshot
+     */
+    public int size() {
+        return size;
+    }
+
+    //================ private methods ================
+
+    /*
+     * grows the entry arrays
+     */
+    private void grow() {
+        int capacity = renderables.length * GROWTH_FACTOR;
+        renderables = Arrays.copyOf(renderables, capacity);
+        coordinates = Arrays.copyOf(coordinates, capacity * COORDINATES_PER_ENTRY);
+        dimensions = Arrays.copyOf(dimensions, capacity);
+        angles = Arrays.copyOf(angles, capacity);
+        opacities = Arrays.copyOf(opacities, capacity);
+        isFlipped = Arrays.copyOf(isFlipped, capacity);
+        isOnCamera = Arrays.copyOf(isOnCamera, capacity);
+    }
+}
@@ -0,0 +1,72 @@
+package pepse.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes the current thread allocates between two points, through the ThreadMXBean of the
+ * JVM. Measuring allocates nothing itself, so it may wrap a single frame.
+ *
+ * @author Tamuz Gitler
+ */
+public class AllocationMeter {
+
+    //================ private constants ==============
+
+    private static final long UNSUPPORTED = -1;
+
+    //================ fields =========================
+
+    private final com.sun.management.ThreadMXBean threadBean;
+    private long startBytes;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor - the meter is unsupported on JVMs that don't count allocated bytes per thread.
+     */
+    public AllocationMeter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean &&
+                ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            this.threadBean = (com.sun.management.ThreadMXBean) bean;
+            this.threadBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            this.threadBean = null;
+        }
+    }
+
+    //================ public methods =================
+
+    /**
+     * @return true if the JVM counts the bytes allocated by each thread
+     */
+    public boolean isSupported() {
+        return threadBean != null;
+    }
+
+    /**
+     * Starts measuring on the current thread.
+     */
+    public void begin() {
+        startBytes = allocatedBytes();
+    }
+
+    /**
+     * @return bytes the current thread allocated since begin was called, -1 if unsupported
+     */
+    public long end() {
+        if (threadBean == null) {
+            return UNSUPPORTED;
+        }
+        return allocatedBytes() - startBytes;
+    }
+
+    //================ private methods ================
+
+    /*
+     * @return bytes the current thread allocated since it started
+     */
+    private long allocatedBytes() {
+        return threadBean == null ? UNSUPPORTED : threadBean.getCurrentThreadAllocatedBytes();
+    }
+}
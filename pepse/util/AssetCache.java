@@ -0,0 +1,186 @@
+package pepse.util;
+
+import danogl.gui.ImageReader;
+import danogl.gui.Sound;
+import danogl.gui.SoundReader;
+import danogl.gui.rendering.Renderable;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Loads every image and sound of the game once and hands out the shared instances, keyed by path. Images
+ * are taken from an AssetPack when it holds them, already decoded, and packed sounds are played by an
+ * AudioMixer from the packed samples. Assets may be preloaded on a background
+ * executor during startup - asking for an asset that is still loading waits for it instead of reading it
+ * again.
+ *
+ * @author Tamuz Gitler
+ */
+public class AssetCache {
+
+    //================ private constants ==============
+
+    private static final String[] IMAGE_EXTENSIONS = {".png", ".jpg", ".jpeg"};
+    private static final String[] SOUND_EXTENSIONS = {".wav"};
+
+    //================ fields =========================
+
+    private final ImageReader imageReader;
+    private final SoundReader soundReader;
+    private final AssetPack assetPack;
+    private final AudioMixer audioMixer;
+    private final Map<String, CompletableFuture<Renderable>> images = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<SoundEffect>> sounds = new ConcurrentHashMap<>();
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param imageReader Contains a single method: readImage, which reads an image from disk. Null for a
+     *                    headless game, images missing from the pack are then not drawn.
+     * @param soundReader Contains a single method: readSound, which reads a wav file from disk. Null for a
+     *                    headless game, sounds missing from the pack are then silent.
+     * @param assetPack   decoded assets, assets missing from it are read with the readers
+     * @param audioMixer  plays the packed sounds, null for playing every sound with the sound reader
+     */
+    public AssetCache(ImageReader imageReader, SoundReader soundReader, AssetPack assetPack,
+                      AudioMixer audioMixer) {
+        this.imageReader = imageReader;
+        this.soundReader = soundReader;
+        this.assetPack = assetPack;
+        this.audioMixer = audioMixer;
+    }
+
+    //================ public methods =================
+
+    /**
+     * @param path path of the image, read with its top left pixel as the transparent color like every image
+     *             of the game
+     * @return the shared image
+     */
+    public Renderable image(String path) {
+        return load(images, path, this::readImage, null).join();
+    }
+
+    /**
+     * @param path path of the wav file
+     * @return the shared sound
+     */
+    public SoundEffect sound(String path) {
+        return load(sounds, path, this::readSound, null).join();
+    }
+
+    /**
+     * Starts loading every image and sound of a directory on the executor. Does nothing if the directory
+     * can't be listed, e.g. when the assets are inside a jar - they are then loaded when first asked for.
+     *
+     * @param directory directory of the assets
+     * @param executor  executor the assets are loaded on
+     */
+    public void preloadDirectory(String directory, Executor executor) {
+        File[] files = new File(directory).listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String path = directory + "/" + file.getName();
+            if (hasExtension(path, IMAGE_EXTENSIONS)) {
+                load(images, path, this::readImage, executor);
+            } else if (hasExtension(path, SOUND_EXTENSIONS)) {
+                load(sounds, path, this::readSound, executor);
+            }
+        }
+    }
+
+    /**
+     * Closes the mixer of the packed sounds, should be called once the game window is closed. Sounds played
+     * afterwards are silent.
+     */
+    public void close() {
+        if (audioMixer != null) {
+            audioMixer.close();
+        }
+    }
+
+    //================ private methods ================
+
+    /*
+     * @return the pending or loaded asset of the path, loading it on the executor (or right away when the
+     * executor is null) if it wasn't asked for before
+     */
+    private static <T> CompletableFuture<T> load(Map<String, CompletableFuture<T>> assets, String path,
+                                                 Function<String, T> reader, Executor executor) {
+        CompletableFuture<T> asset = assets.get(path);
+        if (asset != null) {
+            return asset;
+        }
+        CompletableFuture<T> loading = new CompletableFuture<>();
+        asset = assets.putIfAbsent(path, loading);
+        if (asset != null) {
+            return asset; //another thread started loading it
+        }
+        Runnable read = () -> {
+            try {
+                loading.complete(reader.apply(path));
+            } catch (RuntimeException e) {
+                assets.remove(path, loading); //asked again, it is read again
+                loading.completeExceptionally(e);
+            }
+        };
+        if (executor == null) {
+            read.run();
+        } else {
+            executor.execute(read);
+        }
+        return loading;
+    }
+
+    /*
+     * takes an image from the pack, or reads it with its top left pixel as the transparent color - null
+     * without a reader
+     */
+    private Renderable readImage(String path) {
+        Renderable packedImage = assetPack.image(path);
+        if (packedImage != null || imageReader == null) {
+            return packedImage;
+        }
+        return imageReader.readImage(path, true);
+    }
+
+    /*
+     * creates a mixer sound from the packed samples, or reads the sound with the sound reader, or a silent
+     * sound without a reader
+     */
+    private SoundEffect readSound(String path) {
+        if (audioMixer != null && assetPack.samples(path) != null) {
+            SoundEffect mixedSound = audioMixer.load(assetPack.samples(path), assetPack.audioFormat(path));
+            if (mixedSound != null) {
+                return mixedSound;
+            }
+        }
+        if (soundReader == null) {
+            return priority -> { }; //headless
+        }
+        Sound sound = soundReader.readSound(path);
+        return priority -> sound.play();
+    }
+
+    /*
+     * @return true if the path ends with one of the extensions
+     */
+    private static boolean hasExtension(String path, String[] extensions) {
+        String lowerCasePath = path.toLowerCase();
+        for (String extension : extensions) {
+            if (lowerCasePath.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
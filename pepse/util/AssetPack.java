@@ -0,0 +1,396 @@
+package pepse.util;
+
+import danogl.gui.rendering.ImageRenderable;
+import danogl.gui.rendering.Renderable;
+
+import javax.imageio.ImageIO;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single file holding every asset of the game already decoded, read through one memory mapping.
+ * Images are stored as ARGB rasters, with the pixels matching the top left one already transparent, and
+ * sounds as PCM samples with their format. The file is a header, an index of the entries and their
+ * payloads. The header holds a fingerprint of the asset files, the pack is rebuilt when they change, so
+ * a normal startup only reads the header and maps the pack. The pack is mapped only after it was rebuilt,
+ * so the old file is never replaced while it is mapped.
+ *
+ * @author Tamuz Gitler
+ */
+public class AssetPack {
+
+    //================ private constants ==============
+
+    private static final int MAGIC = 0x5041434B; //"PACK"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 16; //magic, version, fingerprint and number of entries
+    private static final int IMAGE = 1;
+    private static final int SOUND = 2;
+    private static final int IMAGE_HEADER_SIZE = 8; //width and height
+    private static final int SOUND_HEADER_SIZE = 16; //sample rate, sample size, channels, signed, big endian
+    private static final int TRANSPARENT = 0;
+    private static final String[] IMAGE_EXTENSIONS = {".png", ".jpg", ".jpeg"};
+    private static final String[] SOUND_EXTENSIONS = {".wav"};
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    //================ fields =========================
+
+    private final MappedByteBuffer buffer;
+    private final Map<String, Entry> entries;
+
+    //================ constructor ====================
+
+    /*
+     * Constructor
+     * @param buffer  mapping of the pack file, null for an empty pack
+     * @param entries entries of the pack by asset path
+     */
+    private AssetPack(MappedByteBuffer buffer, Map<String, Entry> entries) {
+        this.buffer = buffer;
+        this.entries = entries;
+    }
+
+    //================ public methods =================
+
+    /**
+     * Packs an assets directory into a pack file.
+     *
+     * @param args the assets directory and the pack file, e.g. pepse/assets pepse/cache/assets.pack
+     * @throws IOException if an asset can't be read or the pack can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        build(args[0], Paths.get(args[1]));
+    }
+
+    /**
+     * Maps the pack file of an assets directory, rebuilding it first if it is missing or the assets
+     * changed. If the pack can't be built or mapped the returned pack is empty.
+     *
+     * @param directory directory of the assets, entries are keyed by directory + "/" + file name
+     * @param packFile  path of the pack file
+     * @return the pack
+     */
+    public static AssetPack open(String directory, Path packFile) {
+        try {
+            boolean canRebuild = new File(directory).isDirectory(); //false when the assets are in a jar
+            if (canRebuild && !hasValidHeader(readHeader(packFile), fingerprint(directory))) {
+                build(directory, packFile); //before mapping - a mapped file can't be replaced on every system
+            }
+            if (!Files.exists(packFile)) {
+                return empty();
+            }
+            MappedByteBuffer buffer = map(packFile);
+            return new AssetPack(buffer, readIndex(buffer));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("asset pack disabled: " + e.getMessage());
+            return empty();
+        }
+    }
+
+    /**
+     * @return a pack that holds nothing
+     */
+    public static AssetPack empty() {
+        return new AssetPack(null, new HashMap<>());
+    }
+
+    /**
+     * Creates an image from the packed raster - a single copy of the pixels, without decoding.
+     *
+     * @param path path of the image file
+     * @return the image, null if it isn't packed
+     */
+    public Renderable image(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null || entry.type != IMAGE) {
+            return null;
+        }
+        int width = buffer.getInt(entry.offset);
+        int height = buffer.getInt(entry.offset + 4);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        buffer.slice(entry.offset + IMAGE_HEADER_SIZE, entry.length - IMAGE_HEADER_SIZE).asIntBuffer()
+                .get(pixels);
+        return new ImageRenderable(image);
+    }
+
+    /**
+     * @param path path of the sound file
+     * @return read only view of the packed PCM samples, sharing the mapping, null if the sound isn't packed
+     */
+    public ByteBuffer samples(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null || entry.type != SOUND) {
+            return null;
+        }
+        return buffer.slice(entry.offset + SOUND_HEADER_SIZE, entry.length - SOUND_HEADER_SIZE)
+                .asReadOnlyBuffer();
+    }
+
+    /**
+     * @param path path of the sound file
+     * @return format of the packed PCM samples, null if the sound isn't packed
+     */
+    public AudioFormat audioFormat(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null || entry.type != SOUND) {
+            return null;
+        }
+        return new AudioFormat(buffer.getFloat(entry.offset), buffer.getInt(entry.offset + 4),
+                buffer.getInt(entry.offset + 8), buffer.get(entry.offset + 12) != 0,
+                buffer.get(entry.offset + 13) != 0);
+    }
+
+    /**
+     * @return true if the pack holds at least one sound
+     */
+    public boolean hasSamples() {
+        for (Entry entry : entries.values()) {
+            if (entry.type == SOUND) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //================ private methods ================
+
+    /*
+     * decodes every asset of the directory and writes the pack, replacing the old one at once
+     */
+    private static void build(String directory, Path packFile) throws IOException {
+        File[] files = listAssets(directory);
+        List<byte[]> names = new ArrayList<>();
+        List<Integer> types = new ArrayList<>();
+        List<ByteBuffer> payloads = new ArrayList<>();
+        int indexSize = 0;
+        for (File file : files) {
+            ByteBuffer payload;
+            try {
+                payload = hasExtension(file, IMAGE_EXTENSIONS) ? encodeImage(file) : encodeSound(file);
+            } catch (UnsupportedAudioFileException e) {
+                System.err.println("not packed: " + file + " " + e.getMessage());
+                continue;
+            }
+            byte[] name = (directory + "/" + file.getName()).getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            types.add(hasExtension(file, IMAGE_EXTENSIONS) ? IMAGE : SOUND);
+            payloads.add(payload);
+            indexSize += Short.BYTES + name.length + 3 * Integer.BYTES; //name, type, offset and length
+        }
+
+        ByteBuffer index = ByteBuffer.allocate(HEADER_SIZE + indexSize);
+        index.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(fingerprint(directory)).putInt(names.size());
+        int offset = index.capacity();
+        for (int entry = 0; entry < names.size(); entry++) {
+            index.putShort((short) names.get(entry).length).put(names.get(entry));
+            index.putInt(types.get(entry)).putInt(offset).putInt(payloads.get(entry).remaining());
+            offset += payloads.get(entry).remaining();
+        }
+        index.flip();
+
+        if (packFile.getParent() != null) {
+            Files.createDirectories(packFile.getParent());
+        }
+        Path temporaryFile = packFile.resolveSibling(packFile.getFileName() + TEMPORARY_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, index);
+            for (ByteBuffer payload : payloads) {
+                writeFully(channel, payload);
+            }
+        }
+        Files.move(temporaryFile, packFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /*
+     * decodes an image to an ARGB raster, pixels matching the top left one are made transparent like the
+     * images the ImageReader reads
+     */
+    private static ByteBuffer encodeImage(File file) throws IOException {
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) {
+            throw new IOException("unsupported image " + file);
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        int transparentColor = pixels[0];
+        for (int pixel = 0; pixel < pixels.length; pixel++) {
+            if (pixels[pixel] == transparentColor) {
+                pixels[pixel] = TRANSPARENT;
+            }
+        }
+        ByteBuffer payload = ByteBuffer.allocate(IMAGE_HEADER_SIZE + pixels.length * Integer.BYTES);
+        payload.putInt(width).putInt(height);
+        payload.asIntBuffer().put(pixels);
+        return payload.rewind();
+    }
+
+    /*
+     * decodes a sound to PCM samples, preceded by their format
+     */
+    private static ByteBuffer encodeSound(File file) throws IOException, UnsupportedAudioFileException {
+        try (AudioInputStream stream = AudioSystem.getAudioInputStream(file)) {
+            AudioFormat format = stream.getFormat();
+            AudioInputStream pcmStream = stream;
+            if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED &&
+                    format.getEncoding() != AudioFormat.Encoding.PCM_UNSIGNED) {
+                format = new AudioFormat(format.getSampleRate(), Short.SIZE, format.getChannels(), true,
+                        false);
+                pcmStream = AudioSystem.getAudioInputStream(format, stream);
+            }
+            byte[] samples = pcmStream.readAllBytes();
+            ByteBuffer payload = ByteBuffer.allocate(SOUND_HEADER_SIZE + samples.length);
+            payload.putFloat(format.getSampleRate()).putInt(format.getSampleSizeInBits())
+                    .putInt(format.getChannels());
+            payload.put((byte) (format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED ? 1 : 0));
+            payload.put((byte) (format.isBigEndian() ? 1 : 0));
+            payload.position(SOUND_HEADER_SIZE);
+            payload.put(samples);
+            return payload.flip();
+        }
+    }
+
+    /*
+     * reads the index following the header
+     */
+    private static Map<String, Entry> readIndex(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC ||
+                buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("not an asset pack");
+        }
+        int numOfEntries = buffer.getInt(12);
+        Map<String, Entry> entries = new HashMap<>(numOfEntries * 2);
+        ByteBuffer index = buffer.duplicate().position(HEADER_SIZE);
+        for (int entry = 0; entry < numOfEntries; entry++) {
+            byte[] name = new byte[index.getShort()];
+            index.get(name);
+            entries.put(new String(name, StandardCharsets.UTF_8),
+                    new Entry(index.getInt(), index.getInt(), index.getInt()));
+        }
+        return entries;
+    }
+
+    /*
+     * @return the whole pack file mapped read only - the file is opened once, the mapping outlives it
+     */
+    private static MappedByteBuffer map(Path packFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(packFile, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /*
+     * @return the header of the pack file read without mapping it, null if there is no pack file
+     */
+    private static ByteBuffer readHeader(Path packFile) throws IOException {
+        if (!Files.exists(packFile)) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(packFile, StandardOpenOption.READ)) {
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break; //shorter than a header
+                }
+            }
+        }
+        return header.flip();
+    }
+
+    /*
+     * @return true if the pack was built with this format from the current assets
+     */
+    private static boolean hasValidHeader(ByteBuffer header, int fingerprint) {
+        return header != null && header.limit() >= HEADER_SIZE && header.getInt(0) == MAGIC &&
+                header.getInt(4) == FORMAT_VERSION && header.getInt(8) == fingerprint;
+    }
+
+    /*
+     * @return fingerprint of the names, sizes and modification times of the assets, without opening them
+     */
+    private static int fingerprint(String directory) throws IOException {
+        int fingerprint = FORMAT_VERSION;
+        for (File file : listAssets(directory)) {
+            fingerprint = 31 * fingerprint + file.getName().hashCode();
+            fingerprint = 31 * fingerprint + Long.hashCode(file.length());
+            fingerprint = 31 * fingerprint + Long.hashCode(file.lastModified());
+        }
+        return fingerprint;
+    }
+
+    /*
+     * @return the image and sound files of the directory, sorted by name
+     */
+    private static File[] listAssets(String directory) throws IOException {
+        File[] files = new File(directory).listFiles(file -> hasExtension(file, IMAGE_EXTENSIONS) ||
+                hasExtension(file, SOUND_EXTENSIONS));
+        if (files == null) {
+            throw new IOException("can't list " + directory);
+        }
+        Arrays.sort(files);
+        return files;
+    }
+
+    /*
+     * @return true if the file name ends with one of the extensions
+     */
+    private static boolean hasExtension(File file, String[] extensions) {
+        String name = file.getName().toLowerCase();
+        for (String extension : extensions) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * writes the whole buffer to the channel
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    //================ nested classes =================
+
+    /*
+     * location of an asset in the pack
+     */
+    private static class Entry {
+
+        private final int type;
+        private final int offset;
+        private final int length;
+
+        private Entry(int type, int offset, int length) {
+            this.type = type;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package pepse.util;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+/**
+ * Mixes the sound effects of the game into a single output line, fed by a dedicated mixing thread.
+ * Sounds are kept as preloaded PCM samples and played on a fixed number of voices - when all of them are
+ * taken, a new sound takes the voice of the oldest sound with a lower or equal priority, or is dropped.
+ * The cost of sound is bounded by the number of voices, and its latency by the small line buffer, no
+ * matter how often sounds are played.
+ *
+ * @author Tamuz Gitler
+ */
+public class AudioMixer {
+
+    //================ private constants ==============
+
+    private static final int NUM_OF_VOICES = 8;
+    private static final int CHANNELS = 2;
+    private static final int SAMPLE_BYTES = 2;
+    private static final int MIX_FRAMES = 256; //frames mixed at a time, about 6ms
+    private static final int LINE_BUFFER_FRAMES = 1024; //about 23ms of latency
+    private static final int FREE = -1;
+    private static final float SAMPLE_RATE = 44100;
+    private static final String THREAD_NAME = "pepse-audio";
+
+    private static final AudioFormat OUTPUT_FORMAT = new AudioFormat(SAMPLE_RATE, Short.SIZE, CHANNELS,
+            true, false);
+
+    //================ fields =========================
+
+    private final SourceDataLine line;
+    private final ShortBuffer[] voiceSamples = new ShortBuffer[NUM_OF_VOICES];
+    private final int[] voicePositions = new int[NUM_OF_VOICES];
+    private final int[] voicePriorities = new int[NUM_OF_VOICES];
+    private final long[] voiceStartTimes = new long[NUM_OF_VOICES];
+    private final int[] mixBuffer = new int[MIX_FRAMES * CHANNELS];
+    private final byte[] outputBuffer = new byte[MIX_FRAMES * CHANNELS * SAMPLE_BYTES];
+    private long numOfPlays; //orders the voices by age
+    private volatile boolean isRunning = true;
+
+    //================ constructor ====================
+
+    /*
+     * Constructor
+     * @param line opened output line in OUTPUT_FORMAT
+     */
+    private AudioMixer(SourceDataLine line) {
+        this.line = line;
+        Arrays.fill(voicePriorities, FREE);
+        Thread mixingThread = new Thread(this::mixLoop, THREAD_NAME);
+        mixingThread.setDaemon(true);
+        mixingThread.setPriority(Thread.MAX_PRIORITY);
+        mixingThread.start();
+    }
+
+    //================ public methods =================
+
+    /**
+     * Opens the output line and starts the mixing thread.
+     *
+     * @return the mixer, null if there is no output line to play on
+     */
+    public static AudioMixer open() {
+        try {
+            SourceDataLine line = AudioSystem.getSourceDataLine(OUTPUT_FORMAT);
+            line.open(OUTPUT_FORMAT, LINE_BUFFER_FRAMES * CHANNELS * SAMPLE_BYTES);
+            line.start();
+            return new AudioMixer(line);
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            System.err.println("audio mixer disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Creates a sound played by the mixer. Samples in the output format are used in place, others are
+     * converted once.
+     *
+     * @param samples PCM samples of the sound
+     * @param format  format of the samples
+     * @return the sound, null if the samples can't be converted to the output format
+     */
+    public SoundEffect load(ByteBuffer samples, AudioFormat format) {
+        ShortBuffer clip;
+        if (format.matches(OUTPUT_FORMAT)) {
+            clip = samples.duplicate().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        } else {
+            clip = convert(samples, format);
+            if (clip == null) {
+                return null;
+            }
+        }
+        return priority -> play(clip, priority);
+    }
+
+    /**
+     * Stops the mixing thread and closes the output line.
+     */
+    public void close() {
+        isRunning = false;
+    }
+
+    //================ private methods ================
+
+    /*
+     * starts a clip on a free voice, or on the oldest voice playing with a lower or equal priority
+     */
+    private synchronized void play(ShortBuffer clip, int priority) {
+        int chosenVoice = FREE;
+        for (int voice = 0; voice < NUM_OF_VOICES; voice++) {
+            if (voicePriorities[voice] == FREE) {
+                chosenVoice = voice;
+                break;
+            }
+            if (voicePriorities[voice] <= priority && (chosenVoice == FREE ||
+                    voicePriorities[voice] < voicePriorities[chosenVoice] ||
+                    (voicePriorities[voice] == voicePriorities[chosenVoice] &&
+                            voiceStartTimes[voice] < voiceStartTimes[chosenVoice]))) {
+                chosenVoice = voice;
+            }
+        }
+        if (chosenVoice == FREE) {
+            return; //every voice plays something more important
+        }
+        voiceSamples[chosenVoice] = clip;
+        voicePositions[chosenVoice] = 0;
+        voicePriorities[chosenVoice] = priority;
+        voiceStartTimes[chosenVoice] = numOfPlays++;
+    }
+
+    /*
+     * mixes the playing voices and writes them to the line until the mixer is closed, the blocking write
+     * paces the thread
+     */
+    private void mixLoop() {
+        while (isRunning) {
+            mix();
+            line.write(outputBuffer, 0, outputBuffer.length);
+        }
+        line.drain();
+        line.close();
+    }
+
+    /*
+     * sums the next MIX_FRAMES of every playing voice into the output buffer, clamping the sum
+     */
+    private synchronized void mix() {
+        Arrays.fill(mixBuffer, 0);
+        for (int voice = 0; voice < NUM_OF_VOICES; voice++) {
+            if (voicePriorities[voice] == FREE) {
+                continue;
+            }
+            ShortBuffer clip = voiceSamples[voice];
+            int position = voicePositions[voice];
+            int length = Math.min(mixBuffer.length, clip.limit() - position);
+            for (int sample = 0; sample < length; sample++) {
+                mixBuffer[sample] += clip.get(position + sample);
+            }
+            voicePositions[voice] = position + length;
+            if (voicePositions[voice] >= clip.limit()) {
+                voicePriorities[voice] = FREE;
+                voiceSamples[voice] = null;
+            }
+        }
+        for (int sample = 0; sample < mixBuffer.length; sample++) {
+            int value = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixBuffer[sample]));
+            outputBuffer[2 * sample] = (byte) value;
+            outputBuffer[2 * sample + 1] = (byte) (value >> Byte.SIZE);
+        }
+    }
+
+    /*
+     * @return the samples converted to the output format, null if java sound can't convert them
+     */
+    private static ShortBuffer convert(ByteBuffer samples, AudioFormat format) {
+        byte[] bytes = new byte[samples.remaining()];
+        samples.duplicate().get(bytes);
+        try (AudioInputStream source = new AudioInputStream(new ByteArrayInputStream(bytes), format,
+                bytes.length / format.getFrameSize());
+             AudioInputStream converted = AudioSystem.getAudioInputStream(OUTPUT_FORMAT, source)) {
+            return ByteBuffer.wrap(converted.readAllBytes()).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -37,6 +37,24 @@ public final class ColorSupplier {
                 randomChannelInRange(baseColor.getBlue() - colorDelta, baseColor.getBlue() + colorDelta));
     }
 
+    /**
+     * Returns a color similar to baseColor, with a default delta, sampled from the given random.
+     * Deterministic for a seeded random and safe to call from several threads with separate randoms.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param random    The random to sample the channels from.
+     * @return A color similar to baseColor.
+     */
+    public static Color approximateColor(Color baseColor, Random random) {
+        return new Color(
+                randomChannelInRange(baseColor.getRed() - DEFAULT_COLOR_DELTA,
+                        baseColor.getRed() + DEFAULT_COLOR_DELTA, random),
+                randomChannelInRange(baseColor.getGreen() - DEFAULT_COLOR_DELTA,
+                        baseColor.getGreen() + DEFAULT_COLOR_DELTA, random),
+                randomChannelInRange(baseColor.getBlue() - DEFAULT_COLOR_DELTA,
+                        baseColor.getBlue() + DEFAULT_COLOR_DELTA, random));
+    }
+
     /**
      * This method generates a random value for a color channel within the given range [min, max].
      *
@@ -45,6 +63,18 @@ public final class ColorSupplier {
      * @return A random number in the range [min, max], clipped to [0,255].
      */
     private static int randomChannelInRange(int min, int max) {
+        return randomChannelInRange(min, max, random);
+    }
+
+    /**
+     * This method generates a random value for a color channel within the given range [min, max].
+     *
+     * @param min    The lower bound of the given range.
+     * @param max    The upper bound of the given range.
+     * @param random The random to sample from.
+     * @return A random number in the range [min, max], clipped to [0,255].
+     */
+    private static int randomChannelInRange(int min, int max, Random random) {
         int channel = random.nextInt(max - min + 1) + min;
         return Math.min(255, Math.max(channel, 0));
     }
@@ -0,0 +1,164 @@
+package pepse.util;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from primitive long keys to primitive int values.
+ * No boxing and no entry objects - memory is two arrays sized by the number of entries.
+ *
+ * @author Tamuz Gitler
+ */
+public class LongIntHashMap {
+
+    //================ private constants ==============
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float MAX_LOAD = 0.5f;
+    private static final long FREE_KEY = Long.MIN_VALUE;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    //================ fields =========================
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor - creates an empty map
+     */
+    public LongIntHashMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    //================ public methods =================
+
+    /**
+     * @param key          key to look for, Long.MIN_VALUE is not a valid key
+     * @param defaultValue returned when the key is missing
+     * @return the value of the key, or defaultValue
+     */
+    public int get(long key, int defaultValue) {
+        int slot = find(key);
+        return keys[slot] == FREE_KEY ? defaultValue : values[slot];
+    }
+
+    /**
+     * @param key key to look for
+     * @return true if the map holds the key
+     */
+    public boolean containsKey(long key) {
+        return keys[find(key)] != FREE_KEY;
+    }
+
+    /**
+     * maps the key to the value, replacing the previous value
+     *
+     * @param key   key to set, Long.MIN_VALUE is not a valid key
+     * @param value value to set
+     */
+    public void put(long key, int value) {
+        int slot = find(key);
+        if (keys[slot] == FREE_KEY) {
+            if (size + 1 > keys.length * MAX_LOAD) {
+                rehash(keys.length * 2);
+                slot = find(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * removes the key from the map
+     *
+     * @param key key to remove
+     * @return true if the key was in the map
+     */
+    public boolean remove(long key) {
+        int slot = find(key);
+        if (keys[slot] == FREE_KEY) {
+            return false;
+        }
+        /* backward shift deletion - moves following entries of the probe chain into the hole */
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != FREE_KEY) {
+            int home = slotOf(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = FREE_KEY;
+        size--;
+        return true;
+    }
+
+    /**
+     * @return number of entries in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * removes every entry, keeping the allocated capacity
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        size = 0;
+    }
+
+    //================ private methods ================
+
+    /*
+     * @return the slot holding the key, or the free slot it should be put in
+     */
+    private int find(long key) {
+        int slot = slotOf(key);
+        while (keys[slot] != FREE_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /*
+     * @return home slot of the key
+     */
+    private int slotOf(long key) {
+        long hash = key * HASH_MULTIPLIER;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /*
+     * allocates empty arrays of the given capacity (a power of two)
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE_KEY);
+        mask = capacity - 1;
+    }
+
+    /*
+     * moves every entry to arrays of the given capacity
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != FREE_KEY) {
+                int newSlot = find(oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package pepse.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Watches a rolling window of frame times and trades render distance and leaf quality for speed. The
+ * quality drops a level when the average frame exceeds the budget, and is restored a level only after the
+ * average stays well below the budget for longer - the gap between the two thresholds and the cooldowns
+ * keep the settings from oscillating. Every decision is logged.
+ *
+ * @author Tamuz Gitler
+ */
+public class QualityGovernor {
+
+    //================ public types ===================
+
+    /**
+     * Quality levels, from the best looking to the cheapest.
+     */
+    public enum Level {
+        HIGH(1f, 1f, true),
+        MEDIUM(0.5f, 0.7f, true),
+        LOW(0.2f, 0.4f, false);
+
+        private final float paddingFactor;
+        private final float leafDensity;
+        private final boolean isLeafAnimated;
+
+        Level(float paddingFactor, float leafDensity, boolean isLeafAnimated) {
+            this.paddingFactor = paddingFactor;
+            this.leafDensity = leafDensity;
+            this.isLeafAnimated = isLeafAnimated;
+        }
+
+        /**
+         * @return part of the full render padding to keep
+         */
+        public float getPaddingFactor() {
+            return paddingFactor;
+        }
+
+        /**
+         * @return part of the leafs to spawn on new trees
+         */
+        public float getLeafDensity() {
+            return leafDensity;
+        }
+
+        /**
+         * @return true if leafs sway and stretch while on the tree
+         */
+        public boolean isLeafAnimated() {
+            return isLeafAnimated;
+        }
+    }
+
+    //================ private constants ==============
+
+    private static final int WINDOW_SIZE = 60;
+    private static final int DEGRADE_COOLDOWN_FRAMES = WINDOW_SIZE;
+    private static final int RESTORE_COOLDOWN_FRAMES = 5 * WINDOW_SIZE;
+    private static final float RESTORE_FACTOR = 0.6f; //restore only below this part of the budget
+    private static final float NANOS_IN_MILLI = 1e6f;
+
+    //================ fields =========================
+
+    private final long budgetNanos;
+    private final Consumer<Level> onLevelChange;
+    private final long[] frameTimes = new long[WINDOW_SIZE];
+    private int numOfFrames;
+    private int nextFrame;
+    private long windowSum;
+    private long frameStart;
+    private int framesSinceChange;
+    private Level level = Level.HIGH;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param budgetMillis  time a frame may take
+     * @param onLevelChange called with the new level whenever the quality changes
+     */
+    public QualityGovernor(float budgetMillis, Consumer<Level> onLevelChange) {
+        this.budgetNanos = (long) (budgetMillis * NANOS_IN_MILLI);
+        this.onLevelChange = onLevelChange;
+    }
+
+    //================ public methods =================
+
+    /**
+     * marks the start of the work of a frame
+     */
+    public void frameStarted() {
+        frameStart = System.nanoTime();
+    }
+
+    /**
+     * marks the end of the work of a frame, the time since frameStarted is added to the window and the
+     * quality is re-evaluated
+     */
+    public void frameEnded() {
+        if (frameStart == 0) {
+            return;
+        }
+        addFrameTime(System.nanoTime() - frameStart);
+        frameStart = 0;
+        framesSinceChange++;
+        if (numOfFrames < WINDOW_SIZE) {
+            return;
+        }
+        long average = windowSum / WINDOW_SIZE;
+        if (average > budgetNanos && framesSinceChange >= DEGRADE_COOLDOWN_FRAMES &&
+                level.ordinal() < Level.values().length - 1) {
+            changeLevel(Level.values()[level.ordinal() + 1], average);
+        } else if (average < budgetNanos * RESTORE_FACTOR && framesSinceChange >= RESTORE_COOLDOWN_FRAMES &&
+                level.ordinal() > 0) {
+            changeLevel(Level.values()[level.ordinal() - 1], average);
+        }
+    }
+
+    /**
+     * @return the current quality level
+     */
+    public Level getLevel() {
+        return level;
+    }
+
+    //================ private methods ================
+
+    /*
+     * adds a frame time to the rolling window
+     */
+    private void addFrameTime(long frameTime) {
+        windowSum += frameTime - frameTimes[nextFrame];
+        frameTimes[nextFrame] = frameTime;
+        nextFrame = (nextFrame + 1) % WINDOW_SIZE;
+        numOfFrames = Math.min(numOfFrames + 1, WINDOW_SIZE);
+    }
+
+    /*
+     * switches to a new level, logs the decision and starts a fresh window
+     */
+    private void changeLevel(Level newLevel, long average) {
+        System.out.printf("quality governor: %s -> %s (average frame %.1f ms, budget %.1f ms)%n", level,
+                newLevel, average / NANOS_IN_MILLI, budgetNanos / NANOS_IN_MILLI);
+        level = newLevel;
+        framesSinceChange = 0;
+        numOfFrames = 0;
+        windowSum = 0;
+        Arrays.fill(frameTimes, 0);
+        onLevelChange.accept(newLevel);
+    }
+}
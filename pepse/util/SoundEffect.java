@@ -0,0 +1,33 @@
+package pepse.util;
+
+/**
+ * A sound the game plays on events. Sounds have a priority - when every voice of the AudioMixer is taken,
+ * a sound may take the voice of a sound with a lower priority.
+ *
+ * @author Tamuz Gitler
+ */
+@FunctionalInterface
+public interface SoundEffect {
+
+    //================ public constants ===============
+
+    int LOW_PRIORITY = 0;
+    int NORMAL_PRIORITY = 1;
+    int HIGH_PRIORITY = 2;
+
+    //================ public methods =================
+
+    /**
+     * Plays the sound from its start.
+     *
+     * @param priority priority of this playing, e.g. LOW_PRIORITY for sounds the player repeats quickly
+     */
+    void play(int priority);
+
+    /**
+     * Plays the sound from its start with NORMAL_PRIORITY.
+     */
+    default void play() {
+        play(NORMAL_PRIORITY);
+    }
+}
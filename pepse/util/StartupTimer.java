@@ -0,0 +1,102 @@
+package pepse.util;
+
+/**
+ * Measures how long the game takes to start - until the first frame is drawn, and until the whole initial
+ * world is resident. Time spent waiting for the player, e.g. on a message box, is left out.
+ *
+ * @author Tamuz Gitler
+ */
+public class StartupTimer {
+
+    //================ private constants ==============
+
+    private static final long NOT_YET = -1;
+    private static final double NANOS_IN_MILLI = 1_000_000.0;
+
+    //================ fields =========================
+
+    private long startNanos;
+    private long pausedNanos; //total time the player was waited for
+    private long pauseStartNanos = NOT_YET;
+    private long firstFrameNanos = NOT_YET;
+    private long fullWorldNanos = NOT_YET;
+
+    //================ public methods =================
+
+    /**
+     * Starts measuring a new startup.
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+        pausedNanos = 0;
+        pauseStartNanos = NOT_YET;
+        firstFrameNanos = NOT_YET;
+        fullWorldNanos = NOT_YET;
+    }
+
+    /**
+     * Stops counting time until resume is called.
+     */
+    public void pause() {
+        pauseStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Counts time again after a pause.
+     */
+    public void resume() {
+        if (pauseStartNanos != NOT_YET) {
+            pausedNanos += System.nanoTime() - pauseStartNanos;
+            pauseStartNanos = NOT_YET;
+        }
+    }
+
+    /**
+     * Should be called after every drawn frame, the first one is recorded.
+     */
+    public void frameRendered() {
+        if (firstFrameNanos == NOT_YET) {
+            firstFrameNanos = elapsedNanos();
+        }
+    }
+
+    /**
+     * Records that the whole initial world is resident.
+     */
+    public void worldCompleted() {
+        if (fullWorldNanos == NOT_YET) {
+            fullWorldNanos = elapsedNanos();
+        }
+    }
+
+    /**
+     * @return true if a frame was drawn since the startup began
+     */
+    public boolean hasRenderedFirstFrame() {
+        return firstFrameNanos != NOT_YET;
+    }
+
+    /**
+     * @return true if the whole initial world became resident since the startup began
+     */
+    public boolean isWorldComplete() {
+        return fullWorldNanos != NOT_YET;
+    }
+
+    /**
+     * @return the time to the first frame and to the full world, in milliseconds
+     */
+    public String report() {
+        return String.format("startup: first frame after %.1f ms, full world after %.1f ms",
+                firstFrameNanos / NANOS_IN_MILLI, fullWorldNanos / NANOS_IN_MILLI);
+    }
+
+    //================ private methods ================
+
+    /*
+     * @return nanoseconds since the start, without the paused time
+     */
+    private long elapsedNanos() {
+        return System.nanoTime() - startNanos - pausedNanos;
+    }
+}
@@ -2,10 +2,10 @@ package pepse.world;
 
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
-import danogl.gui.ImageReader;
 import danogl.gui.UserInputListener;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.GameContext;
 
 /**
  * Creates a new avatar.
@@ -45,18 +45,18 @@ public class Avatar extends GameObject {
      * @param layer         The number of the layer to which the created avatar should be added.
      * @param topLeftCorner The location of the top-left corner of the created avatar.
      * @param inputListener Used for reading input from the user.
-     * @param imageReader   Used for reading images from disk or from within a jar.
+     * @param context       the game the avatar belongs to, holding its images and sounds
      * @return A newly created representing the avatar.
      */
     public static Avatar create(GameObjectCollection gameObjects,
                                 int layer,
                                 Vector2 topLeftCorner,
                                 UserInputListener inputListener,
-                                ImageReader imageReader) {
+                                GameContext context) {
 
-        Renderable potatoImage = imageReader.readImage(POTATO_PATH, true);
+        Renderable potatoImage = context.getAssetCache().image(POTATO_PATH);
         Potato avatar = new Potato(topLeftCorner
-                , avatarDimension, potatoImage, inputListener);
+                , avatarDimension, potatoImage, inputListener, context);
         gameObjects.addGameObject(avatar, layer);
         return avatar;
     }
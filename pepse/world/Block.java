@@ -2,9 +2,12 @@ package pepse.world;
 
 import danogl.GameObject;
 import danogl.components.GameObjectPhysics;
+import danogl.gui.rendering.Camera;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
+import java.awt.*;
+
 /**
  * Represents a single block (larger objects can be created from blocks).
  *
@@ -16,6 +19,14 @@ public class Block extends GameObject {
 
     public static final float SIZE = 30;
 
+    //================ fields =========================
+
+    private RenderCuller renderCuller;
+    private int cullingLayer;
+    private CullingGroup cullingGroup;
+    private boolean isCulledWithGroup; //false while the block is outside the bounds of its group
+    private boolean isDrawnByBatch; //drawn baked into a batch, even while registered for collisions
+
     //================ constructor ====================
 
     /**
@@ -25,10 +36,99 @@ public class Block extends GameObject {
      * @param renderable    A renderable to render as the block.
      */
     public Block(Vector2 topLeftCorner, Renderable renderable) {
-        super(topLeftCorner, Vector2.ONES.mult(SIZE), renderable); //initialize constant size
+        this(topLeftCorner, Vector2.ONES.mult(SIZE), renderable); //initialize constant size
+    }
+
+    /**
+     * Constructor for merged blocks, used where the terrain is drawn at a lower level of detail.
+     *
+     * @param topLeftCorner The location of the top-left corner of the created block.
+     * @param dimensions    Dimensions of the block, multiples of SIZE.
+     * @param renderable    A renderable to render as the block.
+     */
+    public Block(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
+        super(topLeftCorner, dimensions, renderable);
         physics().preventIntersectionsFromDirection(Vector2.ZERO); //prevents intersections from specific
         // direction
         physics().setMass(GameObjectPhysics.IMMOVABLE_MASS); //on collision block wouldn't move
     }
 
+    //================ public methods =================
+
+    /**
+     * Makes the block skip rendering while it is outside the camera rectangle, or while its whole group is.
+     *
+     * @param renderCuller culler of the game
+     * @param layer        layer the block is in, used for the culling counts
+     * @param cullingGroup group whose bounds hold the block, null if it is culled alone
+     */
+    public void cullWith(RenderCuller renderCuller, int layer, CullingGroup cullingGroup) {
+        this.renderCuller = renderCuller;
+        this.cullingLayer = layer;
+        this.cullingGroup = cullingGroup;
+        this.isCulledWithGroup = cullingGroup != null;
+    }
+
+    /**
+     * Makes the block skip rendering because a batch draws it, also while the block is registered in a layer
+     * of the engine for collisions.
+     *
+     * @param isDrawnByBatch true if a batch draws the block
+     */
+    public void setDrawnByBatch(boolean isDrawnByBatch) {
+        this.isDrawnByBatch = isDrawnByBatch;
+    }
+
+    /**
+     * @return true if a batch draws the block, so it must not be drawn by itself
+     */
+    public boolean isDrawnByBatch() {
+        return isDrawnByBatch;
+    }
+
+    /**
+     * @return true if the whole group of the block is outside the camera, so the block needs no test
+     */
+    public boolean isGroupOffCamera() {
+        return isCulledWithGroup && !cullingGroup.isOnCamera();
+    }
+
+    /**
+     * renders the block unless a batch draws it or it is culled
+     *
+     * @param g      The graphics context to render to.
+     * @param camera The camera to render through.
+     */
+    @Override
+    public void render(Graphics2D g, Camera camera) {
+        if (isDrawnByBatch) {
+            return;
+        }
+        if (isGroupOffCamera()) {
+            renderCuller.cull(cullingLayer);
+            return;
+        }
+        if (renderCuller != null && !renderCuller.shouldRender(this, cullingLayer)) {
+            return;
+        }
+        super.render(g, camera);
+    }
+
+    //================ protected methods ==============
+
+    /**
+     * @param layer layer the block moved to, used for the culling counts
+     */
+    protected void setCullingLayer(int layer) {
+        this.cullingLayer = layer;
+    }
+
+    /**
+     * @param isCulledWithGroup false while the block moves outside the bounds of its group, so it is tested
+     *                          alone
+     */
+    protected void setCulledWithGroup(boolean isCulledWithGroup) {
+        this.isCulledWithGroup = isCulledWithGroup && cullingGroup != null;
+    }
+
 }
@@ -0,0 +1,94 @@
+package pepse.world;
+
+import danogl.gui.UserInputListener;
+import pepse.world.chunks.ChunkStreamer;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * Lets the player dig and place terrain blocks in front of the potato.
+ * VK_Z digs the highest block of the column in front, VK_X places a block on top of it.
+ *
+ * @author Tamuz Gitler
+ */
+public class BlockEditor {
+
+    //================ private constants ==============
+
+    private static final int DIG_KEY = KeyEvent.VK_Z;
+    private static final int PLACE_KEY = KeyEvent.VK_X;
+    private static final float HALF = 0.5f;
+
+    //================ fields =========================
+
+    private final Terrain terrain;
+    private final WorldQuery worldQuery;
+    private final ChunkStreamer chunkStreamer;
+    private final UserInputListener inputListener;
+    private final Potato avatar;
+
+    private boolean digKeyWasPressed;
+    private boolean placeKeyWasPressed;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param terrain       holds the edits overlay
+     * @param worldQuery    finds the surface in front of the avatar and is kept up to date with the edits
+     * @param chunkStreamer rebuilds the resident columns that were edited
+     * @param inputListener Used for reading input from the user.
+     * @param avatar        blocks are edited in front of the avatar
+     */
+    public BlockEditor(Terrain terrain, WorldQuery worldQuery, ChunkStreamer chunkStreamer,
+                       UserInputListener inputListener, Potato avatar) {
+        this.terrain = terrain;
+        this.worldQuery = worldQuery;
+        this.chunkStreamer = chunkStreamer;
+        this.inputListener = inputListener;
+        this.avatar = avatar;
+    }
+
+    //================ public methods =================
+
+    /**
+     * Should be called once per frame - digs or places a block when the key was just pressed.
+     */
+    public void update() {
+        boolean digKeyPressed = inputListener.isKeyPressed(DIG_KEY);
+        boolean placeKeyPressed = inputListener.isKeyPressed(PLACE_KEY);
+        if (digKeyPressed && !digKeyWasPressed) {
+            int column = targetColumn();
+            editBlock(column, worldQuery.surfaceRowAt(column), WorldEdits.AIR);
+        }
+        if (placeKeyPressed && !placeKeyWasPressed) {
+            int column = targetColumn();
+            editBlock(column, worldQuery.surfaceRowAt(column) - 1, WorldEdits.GROUND);
+        }
+        this.digKeyWasPressed = digKeyPressed;
+        this.placeKeyWasPressed = placeKeyPressed;
+    }
+
+    //================ private methods ================
+
+    /*
+     * @return the column right in front of the avatar
+     */
+    private int targetColumn() {
+        float reach = avatar.getDimensions().x() * HALF + Block.SIZE * HALF;
+        float x = avatar.getCenter().x() + (avatar.isFacingLeft() ? -reach : reach);
+        return (int) Math.floor(x / Block.SIZE);
+    }
+
+    /*
+     * edits the cell and rebuilds the columns whose collidable blocks may have changed
+     */
+    private void editBlock(int column, int row, int blockId) {
+        terrain.setBlock(column, row, blockId);
+        worldQuery.refreshColumn(column);
+        chunkStreamer.rebuildColumn(column - 1);
+        chunkStreamer.rebuildColumn(column);
+        chunkStreamer.rebuildColumn(column + 1);
+    }
+}
@@ -0,0 +1,15 @@
+package pepse.world;
+
+/**
+ * Objects that are culled together - while the whole group is outside the camera, its objects are skipped
+ * by one bounds check of the group instead of a rectangle test each.
+ *
+ * @author Tamuz Gitler
+ */
+public interface CullingGroup {
+
+    /**
+     * @return true if the bounds of the group may be inside the camera rectangle of the frame
+     */
+    boolean isOnCamera();
+}
@@ -0,0 +1,105 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+/**
+ * Resolves a moving object against the terrain surface analytically, instead of letting the engine test
+ * it against every collidable terrain block. The terrain is treated as a heightfield - each column is solid
+ * from its surface down.
+ *
+ * @author Tamuz Gitler
+ */
+public class HeightfieldCollider {
+
+    //================ private constants ==============
+
+    private static final float STEP_TOLERANCE = Block.SIZE / 2; //deeper penetration counts as a wall
+    private static final float EDGE_EPSILON = 0.01f;
+    private static final float NO_MOVEMENT = 0;
+
+    //================ fields =========================
+
+    private final WorldQuery worldQuery;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param worldQuery gives the surface of every column
+     */
+    public HeightfieldCollider(WorldQuery worldQuery) {
+        this.worldQuery = worldQuery;
+    }
+
+    //================ public methods =================
+
+    /**
+     * Pushes the object out of the terrain - first out of a wall it walked into, then up onto the ground it
+     * fell into - and zeroes the matching velocity.
+     *
+     * @param object the object to resolve, after it moved this frame
+     * @return true if the object stands on the ground
+     */
+    public boolean resolve(GameObject object) {
+        Vector2 topLeftCorner = object.getTopLeftCorner();
+        Vector2 dimensions = object.getDimensions();
+        float left = topLeftCorner.x();
+        float top = topLeftCorner.y();
+        float bottom = top + dimensions.y();
+        float velocityX = object.getVelocity().x();
+        float velocityY = object.getVelocity().y();
+
+        /* walls */
+        if (velocityX > NO_MOVEMENT) {
+            int column = columnOf(left + dimensions.x() - EDGE_EPSILON);
+            if (worldQuery.surfaceRowAt(column) * Block.SIZE < bottom - STEP_TOLERANCE) {
+                left = column * Block.SIZE - dimensions.x();
+                object.transform().setVelocityX(NO_MOVEMENT);
+            }
+        } else if (velocityX < NO_MOVEMENT) {
+            int column = columnOf(left);
+            if (worldQuery.surfaceRowAt(column) * Block.SIZE < bottom - STEP_TOLERANCE) {
+                left = (column + 1) * Block.SIZE;
+                object.transform().setVelocityX(NO_MOVEMENT);
+            }
+        }
+
+        /* ground */
+        float ground = groundUnder(left, dimensions.x());
+        boolean grounded = velocityY >= NO_MOVEMENT && bottom >= ground;
+        if (grounded) {
+            top = ground - dimensions.y();
+            object.transform().setVelocityY(NO_MOVEMENT);
+        }
+        if (left != topLeftCorner.x()) {
+            object.transform().setTopLeftCornerX(left); //in place, an object at rest isn't moved at all
+        }
+        if (top != topLeftCorner.y()) {
+            object.transform().setTopLeftCornerY(top);
+        }
+        return grounded;
+    }
+
+    //================ private methods ================
+
+    /*
+     * @return y of the highest surface under the horizontal span [left, left + width)
+     */
+    private float groundUnder(float left, float width) {
+        int lastColumn = columnOf(left + width - EDGE_EPSILON);
+        int highestRow = Integer.MAX_VALUE;
+        for (int column = columnOf(left); column <= lastColumn; column++) {
+            highestRow = Math.min(highestRow, worldQuery.surfaceRowAt(column));
+        }
+        return highestRow * Block.SIZE;
+    }
+
+    /*
+     * @return column holding x
+     */
+    private static int columnOf(float x) {
+        return (int) Math.floor(x / Block.SIZE);
+    }
+}
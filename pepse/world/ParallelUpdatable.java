@@ -0,0 +1,17 @@
+package pepse.world;
+
+/**
+ * A game object whose per-frame update is run by a ParallelUpdater instead of the engine. Its update must
+ * only change the object itself - changes to the game object collection go through ParallelUpdater.defer.
+ *
+ * @author Tamuz Gitler
+ */
+public interface ParallelUpdatable {
+
+    /**
+     * Updates the object, possibly on a worker thread, concurrently with other objects.
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    void updateInParallel(float deltaTime);
+}
@@ -0,0 +1,191 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Updates objects that don't interact with each other before collisions - leafs and rum bottles - in
+ * parallel on a fork-join pool. Structural changes the objects make during the pass (layer moves,
+ * removals) are deferred and applied serially once the pass is over. Every task of the pass keeps its own
+ * list of changes, and the lists are applied in the order of the objects, so the outcome of a pass doesn't
+ * depend on how the threads were scheduled.
+ *
+ * @author Tamuz Gitler
+ */
+public class ParallelUpdater {
+
+    //================ private constants ==============
+
+    private static final int OBJECTS_PER_TASK = 256;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int INITIAL_CHANGES_CAPACITY = 16;
+    private static final int GROWTH_FACTOR = 2;
+
+    //================ fields =========================
+
+    private final GameObjectCollection gameObjects;
+    private final ForkJoinPool pool;
+    private final int[] layers;
+    private final ThreadLocal<UpdateTask> runningTask = new ThreadLocal<>(); //of the calling worker
+    private final PassTask pass = new PassTask();
+    private ParallelUpdatable[] objects = new ParallelUpdatable[INITIAL_CAPACITY];
+    private int numOfObjects;
+    private UpdateTask[] tasks = new UpdateTask[0]; //reused every pass, only grown
+    private int numOfTasks;
+    private float deltaTime; //of the current pass
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param gameObjects The collection of all participating game objects.
+     * @param pool        pool the objects are updated on
+     * @param layers      layers whose ParallelUpdatable objects are updated
+     */
+    public ParallelUpdater(GameObjectCollection gameObjects, ForkJoinPool pool, int... layers) {
+        this.gameObjects = gameObjects;
+        this.pool = pool;
+        this.layers = layers;
+    }
+
+    //================ public methods =================
+
+    /**
+     * Updates every ParallelUpdatable object of the layers, then applies the deferred changes task by task,
+     * in the order of the objects that made them. Should be called once per step, before the engine update
+     * resolves collisions.
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    public void update(float deltaTime) {
+        collectObjects();
+        if (numOfObjects > 0) {
+            this.deltaTime = deltaTime;
+            prepareTasks();
+            pool.invoke(pass);
+        }
+        Arrays.fill(objects, 0, numOfObjects, null);
+        for (int task = 0; task < numOfTasks; task++) {
+            tasks[task].applyDeferredChanges();
+        }
+        numOfTasks = 0;
+    }
+
+    /**
+     * Defers a change to the game object collection until the parallel pass is over, keeping it with the
+     * other changes of the calling task. Outside of a pass the change is applied right away.
+     *
+     * @param change the change to apply
+     */
+    public void defer(Runnable change) {
+        UpdateTask task = runningTask.get();
+        if (task == null) {
+            change.run();
+            return;
+        }
+        task.deferredChanges.add(change);
+    }
+
+    //================ private methods ================
+
+    /*
+     * collects the objects to update, the layers can't be iterated concurrently
+     */
+    private void collectObjects() {
+        numOfObjects = 0;
+        for (int layer : layers) {
+            for (GameObject gameObject : gameObjects.objectsInLayer(layer)) {
+                if (!(gameObject instanceof ParallelUpdatable)) {
+                    continue;
+                }
+                if (numOfObjects == objects.length) {
+                    objects = Arrays.copyOf(objects, objects.length * GROWTH_FACTOR);
+                }
+                objects[numOfObjects++] = (ParallelUpdatable) gameObject;
+            }
+        }
+    }
+
+    /*
+     * splits the collected objects between the tasks of the pass, the tasks of the previous pass are reused
+     * so a pass doesn't allocate
+     */
+    private void prepareTasks() {
+        numOfTasks = (numOfObjects + OBJECTS_PER_TASK - 1) / OBJECTS_PER_TASK;
+        if (numOfTasks > tasks.length) {
+            int numOfReusedTasks = tasks.length;
+            tasks = Arrays.copyOf(tasks, numOfTasks);
+            for (int task = numOfReusedTasks; task < numOfTasks; task++) {
+                tasks[task] = new UpdateTask(task * OBJECTS_PER_TASK);
+            }
+        }
+        for (int task = 0; task < numOfTasks; task++) {
+            tasks[task].reinitialize();
+        }
+        pass.reinitialize();
+    }
+
+    //================ nested classes =================
+
+    /*
+     * runs the tasks of a pass - forks all but the first, runs the first and joins the rest
+     */
+    @SuppressWarnings("serial") //tasks are never serialized
+    private class PassTask extends RecursiveAction {
+
+        @Override
+        protected void compute() {
+            for (int task = 1; task < numOfTasks; task++) {
+                tasks[task].fork();
+            }
+            tasks[0].invoke();
+            for (int task = numOfTasks - 1; task > 0; task--) {
+                tasks[task].join();
+            }
+        }
+    }
+
+    /*
+     * updates up to OBJECTS_PER_TASK objects starting at a fixed index, and keeps the changes they deferred
+     */
+    @SuppressWarnings("serial") //tasks are never serialized
+    private class UpdateTask extends RecursiveAction {
+
+        private final int from;
+        private final List<Runnable> deferredChanges = new ArrayList<>(INITIAL_CHANGES_CAPACITY);
+
+        private UpdateTask(int from) {
+            this.from = from;
+        }
+
+        @Override
+        protected void compute() {
+            runningTask.set(this);
+            try {
+                int to = Math.min(from + OBJECTS_PER_TASK, numOfObjects);
+                for (int object = from; object < to; object++) {
+                    objects[object].updateInParallel(deltaTime);
+                }
+            } finally {
+                runningTask.set(null); //kept registered, so the next pass doesn't allocate an entry
+            }
+        }
+
+        /*
+         * applies the changes deferred by the objects of the task, in the order they were made
+         */
+        private void applyDeferredChanges() {
+            for (int change = 0; change < deferredChanges.size(); change++) {
+                deferredChanges.get(change).run();
+            }
+            deferredChanges.clear();
+        }
+    }
+}
@@ -2,11 +2,13 @@ package pepse.world;
 
 import danogl.GameObject;
 import danogl.collisions.Collision;
-import danogl.gui.Sound;
 import danogl.gui.UserInputListener;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.GameContext;
 import pepse.PepseGameManager;
+import pepse.display.ObservableFloat;
+import pepse.util.SoundEffect;
 
 import java.awt.event.KeyEvent;
 
@@ -25,7 +27,7 @@ public class Potato extends Avatar {
     private final int NO_MOVEMENT = 0;
     private static final int FLYING_VELOCITY = -350;
 
-    private static final float VELOCITY_FACTOR = 0.5f;
+    private static final float ENERGY_RATE = 30; //energy gained or lost per second
     private static final float VELOCITY_X = 400;
     private static final float JUMPING_VELOCITY = -300;
     private static final float GRAVITY = 700;
@@ -37,9 +39,12 @@ public class Potato extends Avatar {
 
     private final UserInputListener inputListener;
     private float energy;
-    private final Sound jumpingSound;
-    private final Sound flyingSound;
+    private final ObservableFloat observableEnergy = new ObservableFloat(FULL_ENERGY); //bound by the HUD
+    private final SoundEffect jumpingSound;
+    private final SoundEffect flyingSound;
     private boolean isFlying;
+    private boolean isFacingLeft;
+    private HeightfieldCollider heightfieldCollider;
 
     //================ constructor ====================
 
@@ -52,12 +57,13 @@ public class Potato extends Avatar {
      * @param renderable    The renderable representing the object. Can be null, in which case
      * @param inputListener Contains a single method: isKeyPressed, which returns whether a given key is
      *                      currently
+     * @param context       the game the potato belongs to, holding its sounds
      */
     public Potato(Vector2 position, Vector2 dimensions, Renderable renderable,
-                  UserInputListener inputListener) {
+                  UserInputListener inputListener, GameContext context) {
         super(position, dimensions, renderable);
-        this.jumpingSound = PepseGameManager.soundReader.readSound(JUMPING_SOUND_PATH);
-        this.flyingSound = PepseGameManager.soundReader.readSound(FLYING_SOUND_PATH);
+        this.jumpingSound = context.getAssetCache().sound(JUMPING_SOUND_PATH);
+        this.flyingSound = context.getAssetCache().sound(FLYING_SOUND_PATH);
         this.isFlying = false;
         this.inputListener = inputListener;
         this.energy = FULL_ENERGY;
@@ -90,10 +96,48 @@ public class Potato extends Avatar {
     @Override
     public void update(float deltaTime) {
         super.update(deltaTime);
+        if (this.heightfieldCollider != null) {
+            this.heightfieldCollider.resolve(this);
+        }
         moveHorizontal();
         jump();
         fly();
-        updateEnergy();
+        updateEnergy(deltaTime);
+        this.observableEnergy.set(energy);
+    }
+
+    /**
+     * Starts the potato over for a new round - standing at the given location, facing right, with full
+     * energy.
+     *
+     * @param topLeftCorner location the potato starts the round at
+     */
+    public void reset(Vector2 topLeftCorner) {
+        setTopLeftCorner(topLeftCorner);
+        setVelocity(Vector2.ZERO);
+        transform().setAccelerationY(GRAVITY);
+        renderer().setIsFlippedHorizontally(false);
+        this.isFacingLeft = false;
+        this.isFlying = false;
+        this.energy = FULL_ENERGY;
+        this.observableEnergy.set(energy);
+    }
+
+    /**
+     * Switches the potato to heightfield collision - it is grounded against the terrain surface by the
+     * collider, so its layer doesn't need to collide with the terrain blocks.
+     *
+     * @param heightfieldCollider resolves the potato against the terrain surface
+     */
+    public void useHeightfieldCollision(HeightfieldCollider heightfieldCollider) {
+        this.heightfieldCollider = heightfieldCollider;
+    }
+
+    /**
+     * @return true if the potato looks to the left
+     */
+    public boolean isFacingLeft() {
+        return isFacingLeft;
     }
 
     /**
@@ -105,6 +149,13 @@ public class Potato extends Avatar {
         return energy;
     }
 
+    /**
+     * @return the potato energy, telling its listeners when it changes
+     */
+    public ObservableFloat getObservableEnergy() {
+        return observableEnergy;
+    }
+
 
     //================ private methods =================
 
@@ -116,11 +167,13 @@ public class Potato extends Avatar {
         if (this.inputListener.isKeyPressed(KeyEvent.VK_LEFT)) {
             xVel -= VELOCITY_X;
             renderer().setIsFlippedHorizontally(true);
+            this.isFacingLeft = true;
         }
 
         if (this.inputListener.isKeyPressed(KeyEvent.VK_RIGHT)) {
             xVel += VELOCITY_X;
             renderer().setIsFlippedHorizontally(false);
+            this.isFacingLeft = false;
         }
         transform().setVelocityX(xVel);
     }
@@ -132,7 +185,7 @@ public class Potato extends Avatar {
         if (this.inputListener.isKeyPressed(KeyEvent.VK_SPACE) && getVelocity().y() == 0 &&
                 !this.inputListener.isKeyPressed(KeyEvent.VK_SHIFT)) {
             transform().setVelocityY(JUMPING_VELOCITY);
-            this.jumpingSound.play();
+            this.jumpingSound.play(SoundEffect.LOW_PRIORITY); //repeated quickly
         }
 
     }
@@ -147,7 +200,7 @@ public class Potato extends Avatar {
             transform().setVelocityY(FLYING_VELOCITY);
             transform().setAccelerationY(NO_MOVEMENT);
             this.isFlying = true;
-            this.flyingSound.play();
+            this.flyingSound.play(SoundEffect.LOW_PRIORITY);
         }
     }
 
@@ -155,11 +208,11 @@ public class Potato extends Avatar {
      *this function updates the avatar energy according to his game situation,
      * if he is flying, we reduce his energy while making sure its positive, if he is moving were not
      * adding any energy
-     * and if he is resting, energy is added.
+     * and if he is resting, energy is added. The change is proportional to the elapsed time.
      */
-    private void updateEnergy() {
+    private void updateEnergy(float deltaTime) {
         if (isFlying && energy >= EMPTY_ENERGY) {
-            energy = (energy - VELOCITY_FACTOR);
+            energy = (energy - ENERGY_RATE * deltaTime);
             if (energy <= EMPTY_ENERGY) {
                 energy = EMPTY_ENERGY;
                 isFlying = false;
@@ -169,7 +222,7 @@ public class Potato extends Avatar {
         }
 
         if (isResting()) {
-            energy = (energy + VELOCITY_FACTOR);
+            energy = (energy + ENERGY_RATE * deltaTime);
             if (energy > FULL_ENERGY) {
                 energy = FULL_ENERGY;
             }
@@ -0,0 +1,62 @@
+package pepse.world;
+
+/**
+ * Result of a WorldQuery raycast - the first solid cell the ray entered. Reusable between casts so
+ * casting doesn't allocate.
+ *
+ * @author Tamuz Gitler
+ */
+public class RaycastHit {
+
+    //================ fields =========================
+
+    private int column;
+    private int row;
+    private int blockId;
+    private float distance;
+
+    //================ public methods =================
+
+    /**
+     * @return column of the hit cell
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * @return row of the hit cell
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * @return block id of the hit cell
+     */
+    public int getBlockId() {
+        return blockId;
+    }
+
+    /**
+     * @return distance from the ray origin to the point the ray entered the cell
+     */
+    public float getDistance() {
+        return distance;
+    }
+
+    /**
+     * sets the hit values
+     *
+     * @param column   column of the hit cell
+     * @param row      row of the hit cell
+     * @param blockId  block id of the hit cell
+     * @param distance distance from the ray origin to the cell
+     */
+    void set(int column, int row, int blockId, float distance) {
+        this.column = column;
+        this.row = row;
+        this.blockId = blockId;
+        this.distance = distance;
+    }
+}
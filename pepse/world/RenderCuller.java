@@ -0,0 +1,173 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Camera;
+import danogl.util.Vector2;
+
+import java.util.Arrays;
+
+/**
+ * Culls objects outside the camera rectangle before they are drawn, and counts the drawn and culled
+ * objects of every layer. Objects ask the culler from their render method, so the objects in the render
+ * padding are never drawn. Objects of a CullingGroup that is off camera are culled without a test each.
+ *
+ * @author Tamuz Gitler
+ */
+public class RenderCuller {
+
+    //================ private constants ==============
+
+    private static final int INITIAL_NUM_OF_LAYERS = 8;
+    private static final int GROWTH_FACTOR = 2;
+    private static final int NOT_FOUND = -1;
+
+    //================ fields =========================
+
+    private int[] layers = new int[INITIAL_NUM_OF_LAYERS]; //grown when more layers are culled
+    private int[] drawn = new int[INITIAL_NUM_OF_LAYERS];
+    private int[] culled = new int[INITIAL_NUM_OF_LAYERS];
+    private int[] lastDrawn = new int[INITIAL_NUM_OF_LAYERS];
+    private int[] lastCulled = new int[INITIAL_NUM_OF_LAYERS];
+    private int numOfLayers;
+    private int frame; //counts the frames, so groups check their bounds once per frame
+    private boolean isEnabled;
+    private float left, top, right, bottom;
+
+    //================ public methods =================
+
+    /**
+     * Should be called once per frame before the objects are rendered - takes the camera rectangle of the
+     * frame and keeps the counts of the previous frame.
+     *
+     * @param camera camera of the frame, null disables culling for the frame
+     */
+    public void beginFrame(Camera camera) {
+        System.arraycopy(drawn, 0, lastDrawn, 0, numOfLayers);
+        System.arraycopy(culled, 0, lastCulled, 0, numOfLayers);
+        Arrays.fill(drawn, 0);
+        Arrays.fill(culled, 0);
+        frame++;
+        isEnabled = camera != null;
+        if (!isEnabled) {
+            return;
+        }
+        Vector2 topLeftCorner = camera.getTopLeftCorner();
+        Vector2 dimensions = camera.getDimensions();
+        left = topLeftCorner.x();
+        top = topLeftCorner.y();
+        right = left + dimensions.x();
+        bottom = top + dimensions.y();
+    }
+
+    /**
+     * @param gameObject object about to be rendered
+     * @param layer      layer of the object, used for the counts
+     * @return true if the object intersects the camera rectangle and should be drawn
+     */
+    public boolean shouldRender(GameObject gameObject, int layer) {
+        int slot = slotOf(layer);
+        if (!isEnabled) {
+            drawn[slot]++;
+            return true;
+        }
+        Vector2 topLeftCorner = gameObject.getTopLeftCorner();
+        Vector2 dimensions = gameObject.getDimensions();
+        boolean isVisible = topLeftCorner.x() < right && topLeftCorner.x() + dimensions.x() > left &&
+                topLeftCorner.y() < bottom && topLeftCorner.y() + dimensions.y() > top;
+        if (isVisible) {
+            drawn[slot]++;
+        } else {
+            culled[slot]++;
+        }
+        return isVisible;
+    }
+
+    /**
+     * counts an object of the layer culled without its own test, because its whole group is off camera
+     *
+     * @param layer layer of the object
+     */
+    public void cull(int layer) {
+        culled[slotOf(layer)]++;
+    }
+
+    /**
+     * @return number of the current frame, changes every time a frame begins
+     */
+    public int getFrame() {
+        return frame;
+    }
+
+    /**
+     * @param minX lower bound of a range of columns (inclusive)
+     * @param maxX upper bound of the range (exclusive)
+     * @return true if the columns of the range may be inside the camera rectangle of the frame
+     */
+    public boolean isRangeVisible(float minX, float maxX) {
+        return !isEnabled || (minX < right && maxX > left);
+    }
+
+    /**
+     * @param layer layer to check
+     * @return number of objects of the layer drawn in the last complete frame
+     */
+    public int getDrawn(int layer) {
+        int slot = findSlot(layer);
+        return slot == NOT_FOUND ? 0 : lastDrawn[slot];
+    }
+
+    /**
+     * @param layer layer to check
+     * @return number of objects of the layer culled in the last complete frame
+     */
+    public int getCulled(int layer) {
+        int slot = findSlot(layer);
+        return slot == NOT_FOUND ? 0 : lastCulled[slot];
+    }
+
+    /**
+     * @return drawn/culled counts of every layer in the last complete frame
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder("render culling (layer: drawn/culled)");
+        for (int slot = 0; slot < numOfLayers; slot++) {
+            report.append(' ').append(layers[slot]).append(": ").append(lastDrawn[slot]).append('/')
+                    .append(lastCulled[slot]);
+        }
+        return report.toString();
+    }
+
+    //================ private methods ================
+
+    /*
+     * @return the counts slot of a layer, registering the layer if needed
+     */
+    private int slotOf(int layer) {
+        int slot = findSlot(layer);
+        if (slot != NOT_FOUND) {
+            return slot;
+        }
+        if (numOfLayers == layers.length) {
+            int capacity = layers.length * GROWTH_FACTOR;
+            layers = Arrays.copyOf(layers, capacity);
+            drawn = Arrays.copyOf(drawn, capacity);
+            culled = Arrays.copyOf(culled, capacity);
+            lastDrawn = Arrays.copyOf(lastDrawn, capacity);
+            lastCulled = Arrays.copyOf(lastCulled, capacity);
+        }
+        layers[numOfLayers] = layer;
+        return numOfLayers++;
+    }
+
+    /*
+     * @return the counts slot of a layer, NOT_FOUND if the layer was never culled
+     */
+    private int findSlot(int layer) {
+        for (int slot = 0; slot < numOfLayers; slot++) {
+            if (layers[slot] == layer) {
+                return slot;
+            }
+        }
+        return NOT_FOUND;
+    }
+}
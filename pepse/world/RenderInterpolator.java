@@ -0,0 +1,113 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.util.Vector2;
+
+import java.util.Arrays;
+
+/**
+ * Draws moving objects between their last two simulation steps, so motion stays smooth when the frame rate
+ * differs from the fixed simulation rate. Positions are recorded before every step, blended right before
+ * rendering and restored right after it, so the simulation never sees the blended positions.
+ *
+ * @author Tamuz Gitler
+ */
+public class RenderInterpolator {
+
+    //================ private constants ==============
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int GROWTH_FACTOR = 2;
+
+    //================ fields =========================
+
+    private final GameObjectCollection gameObjects;
+    private final int[] layers;
+    private GameObject[] objects = new GameObject[INITIAL_CAPACITY];
+    private Vector2[] previousPositions = new Vector2[INITIAL_CAPACITY];
+    private Vector2[] currentPositions = new Vector2[INITIAL_CAPACITY];
+    private int numOfObjects;
+    private boolean isRendering;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param gameObjects The collection of all participating game objects.
+     * @param layers      layers of the moving objects to interpolate
+     */
+    public RenderInterpolator(GameObjectCollection gameObjects, int... layers) {
+        this.gameObjects = gameObjects;
+        this.layers = layers;
+    }
+
+    //================ public methods =================
+
+    /**
+     * Should be called right before every simulation step - records the positions the step starts from.
+     *
+     * @param extraObject moving object outside the interpolated layers, e.g. the camera - a single object
+     *                    rather than varargs, so a step doesn't allocate an array
+     */
+    public void beforeStep(GameObject extraObject) {
+        Arrays.fill(objects, 0, numOfObjects, null);
+        numOfObjects = 0;
+        track(extraObject);
+        for (int layer : layers) {
+            for (GameObject gameObject : gameObjects.objectsInLayer(layer)) {
+                track(gameObject);
+            }
+        }
+    }
+
+    /**
+     * Moves the recorded objects to their blended positions for rendering.
+     *
+     * @param alpha part of a step that passed since the last step, between 0 and 1
+     */
+    public void beginRender(float alpha) {
+        isRendering = true;
+        for (int i = 0; i < numOfObjects; i++) {
+            Vector2 current = objects[i].getTopLeftCorner();
+            currentPositions[i] = current;
+            Vector2 previous = previousPositions[i];
+            if (previous.x() == current.x() && previous.y() == current.y()) {
+                continue; //resting objects are drawn where they are
+            }
+            objects[i].transform().setTopLeftCornerX(previous.x() + (current.x() - previous.x()) * alpha);
+            objects[i].transform().setTopLeftCornerY(previous.y() + (current.y() - previous.y()) * alpha);
+        }
+    }
+
+    /**
+     * Moves the recorded objects back to their simulated positions.
+     */
+    public void endRender() {
+        if (!isRendering) {
+            return;
+        }
+        isRendering = false;
+        for (int i = 0; i < numOfObjects; i++) {
+            objects[i].setTopLeftCorner(currentPositions[i]);
+            currentPositions[i] = null;
+        }
+    }
+
+    //================ private methods ================
+
+    /*
+     * records the current position of an object as the position its next step starts from
+     */
+    private void track(GameObject gameObject) {
+        if (numOfObjects == objects.length) {
+            objects = Arrays.copyOf(objects, objects.length * GROWTH_FACTOR);
+            previousPositions = Arrays.copyOf(previousPositions, objects.length);
+            currentPositions = Arrays.copyOf(currentPositions, objects.length);
+        }
+        objects[numOfObjects] = gameObject;
+        previousPositions[numOfObjects] = gameObject.getTopLeftCorner();
+        numOfObjects++;
+    }
+}
@@ -2,67 +2,74 @@ package pepse.world;
 
 import danogl.GameObject;
 import danogl.collisions.Collision;
-import danogl.collisions.GameObjectCollection;
-import danogl.gui.Sound;
-import danogl.gui.SoundReader;
 import danogl.gui.rendering.Renderable;
-import danogl.util.Counter;
 import danogl.util.Vector2;
-import pepse.PepseGameManager;
 
 /**
- * This class Creates RumBottle that avatar will collect
+ * This class Creates RumBottle that avatar will collect. Bottles are pooled by a RumBottleManager, which
+ * spawns them, scores them and resolves the ones that reach the terrain.
  *
  * @author Tamuz Gitler
  */
-public class RumBottle extends GameObject {
-
-    //================ private constants ==============
-
-    private static final int INCREASE_VALUE = 2;
-    private static final int MIN_SCORE = 0;
-
-    private static final String BREAKING_BOTTLE_WAV_PATH = "pepse/assets/breaking_bottle.wav";
-    private static final String RUM_ONLY_WAV_PATH = "pepse/assets/bottle_of_rum.wav";
+public class RumBottle extends GameObject implements ParallelUpdatable {
 
     //================ fields =========================
 
-    private boolean alreadyCollided = false;
-    private final GameObjectCollection gameObjectCollection;
-    private final Sound breakingBottleSound;
-    private final Sound drinkingBottleSound;
-    private final Counter collectedBottles;
+    private final RumBottleManager manager;
+    private ParallelUpdater parallelUpdater;
 
     //================ constructor ====================
 
     /**
      * Constructor
      *
-     * @param topLeftCorner        Position of the object, in window coordinates (pixels).
-     * @param dimensions           Width and height in window coordinates.
-     * @param renderable           The renderable representing the object. Can be null, in which case
-     * @param gameObjectCollection gameObject to add / remove obejcts from
-     * @param soundReader          Contains a single method: readSound, which reads a wav file from disk.
-     * @param collectedBottles     counter
+     * @param topLeftCorner Position of the object, in window coordinates (pixels).
+     * @param dimensions    Width and height in window coordinates.
+     * @param renderable    The renderable representing the object. Can be null, in which case
+     * @param manager       manager the bottle reports its collection to
      */
-    public RumBottle(Vector2 topLeftCorner,
-                     Vector2 dimensions,
-                     Renderable renderable,
-                     GameObjectCollection gameObjectCollection,
-                     SoundReader soundReader, Counter collectedBottles) {
+    public RumBottle(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
+                     RumBottleManager manager) {
         super(topLeftCorner, dimensions, renderable);
+        this.manager = manager;
+    }
 
-        /* init variables */
-        this.gameObjectCollection = gameObjectCollection;
-        this.breakingBottleSound = soundReader.readSound(BREAKING_BOTTLE_WAV_PATH);
-        this.drinkingBottleSound = soundReader.readSound(RUM_ONLY_WAV_PATH);
-        this.collectedBottles = collectedBottles;
+    //================ public methods =================
 
+    /**
+     * Should be called once per frame by the engine - does nothing if the bottle is updated in parallel.
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        if (this.parallelUpdater == null) {
+            super.update(deltaTime);
+        }
+    }
+
+    /**
+     * Moves the bottle, called by the parallel updater.
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    @Override
+    public void updateInParallel(float deltaTime) {
+        super.update(deltaTime);
+    }
+
+    /**
+     * Makes the bottle updated by a parallel updater instead of the engine.
+     *
+     * @param parallelUpdater updates the bottle
+     */
+    public void updateWith(ParallelUpdater parallelUpdater) {
+        this.parallelUpdater = parallelUpdater;
     }
-    //================ public methods =================
 
     /**
-     * defines the action when this Seter collides with another object.
+     * defines the action when this bottle collides with another object - the bottle only collides with the
+     * avatar, which collects it.
      *
      * @param other     GameObject with which a collision occurred.
      * @param collision Information regarding this collision.
@@ -70,21 +77,8 @@ public class RumBottle extends GameObject {
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
-        /* checks if setter collided with Paddle */
         if (other instanceof Potato) {
-            this.collectedBottles.increaseBy(INCREASE_VALUE);
-            if (this.collectedBottles.value() < PepseGameManager.WINNING_BAR) {
-                this.drinkingBottleSound.play();
-            }
-        } else {
-            if (other.getTag().equals(Terrain.TERRAIN_TAG)) {
-                this.breakingBottleSound.play();
-                if (this.collectedBottles.value() > MIN_SCORE && !alreadyCollided) {
-                    this.collectedBottles.decrement();
-                    this.alreadyCollided = true;
-                }
-            }
+            this.manager.collect(this);
         }
-        this.gameObjectCollection.removeGameObject(this, PepseGameManager.RUM_LAYER);
     }
 }
@@ -0,0 +1,199 @@
+package pepse.world;
+
+import danogl.collisions.GameObjectCollection;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Counter;
+import danogl.util.Vector2;
+import pepse.GameContext;
+import pepse.PepseGameManager;
+import pepse.util.SoundEffect;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Spawns the falling rum bottles and resolves them. Bottles are pooled and share sounds loaded once, and
+ * the time a bottle reaches the terrain is computed when it spawns, so a missed bottle is resolved by a
+ * timer instead of colliding with the terrain - spawning more bottles costs neither disk reads nor
+ * collision tests against the terrain.
+ *
+ * @author Tamuz Gitler
+ */
+public class RumBottleManager {
+
+    //================ private constants ==============
+
+    private static final int INCREASE_VALUE = 2;
+    private static final int MIN_SCORE = 0;
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int GROWTH_FACTOR = 2;
+
+    private static final String BREAKING_BOTTLE_WAV_PATH = "pepse/assets/breaking_bottle.wav";
+    private static final String RUM_ONLY_WAV_PATH = "pepse/assets/bottle_of_rum.wav";
+
+    //================ fields =========================
+
+    private final GameObjectCollection gameObjects;
+    private final WorldQuery worldQuery;
+    private final Renderable renderable;
+    private final Vector2 dimensions;
+    private final Vector2 velocity;
+    private final Counter collectedBottles;
+    private final SoundEffect breakingBottleSound;
+    private final SoundEffect drinkingBottleSound;
+    private final ParallelUpdater parallelUpdater;
+    private final Deque<RumBottle> pool = new ArrayDeque<>();
+    private RumBottle[] activeBottles = new RumBottle[INITIAL_CAPACITY];
+    private float[] timesToLanding = new float[INITIAL_CAPACITY];
+    private int numOfActiveBottles;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param gameObjects      The collection of all participating game objects.
+     * @param worldQuery       surface heights of the world, used for predicting where bottles land
+     * @param renderable       image of a bottle
+     * @param dimensions       Width and height of a bottle in window coordinates.
+     * @param velocity         velocity of a falling bottle
+     * @param collectedBottles counter of the collected bottles
+     * @param context          the game the bottles belong to, holding their sounds and their updater
+     */
+    public RumBottleManager(GameObjectCollection gameObjects, WorldQuery worldQuery, Renderable renderable,
+                            Vector2 dimensions, Vector2 velocity, Counter collectedBottles,
+                            GameContext context) {
+        this.gameObjects = gameObjects;
+        this.worldQuery = worldQuery;
+        this.renderable = renderable;
+        this.dimensions = dimensions;
+        this.velocity = velocity;
+        this.collectedBottles = collectedBottles;
+        this.parallelUpdater = context.getParallelUpdater();
+        this.breakingBottleSound = context.getAssetCache().sound(BREAKING_BOTTLE_WAV_PATH);
+        this.drinkingBottleSound = context.getAssetCache().sound(RUM_ONLY_WAV_PATH);
+
+        /* bottles land by timer, only the avatar collides with them */
+        gameObjects.layers().shouldLayersCollide(PepseGameManager.RUM_LAYER, PepseGameManager.AVATAR_LAYER,
+                true);
+        gameObjects.layers().shouldLayersCollide(PepseGameManager.RUM_LAYER,
+                PepseGameManager.COLLIDABLE_TERRIAN_LAYER, false);
+    }
+
+    //================ public methods =================
+
+    /**
+     * Drops a bottle from the given location, reusing a resolved bottle if there is one.
+     *
+     * @param topLeftCorner location the bottle starts falling from
+     */
+    public void spawn(Vector2 topLeftCorner) {
+        RumBottle rumBottle = pool.poll();
+        if (rumBottle == null) {
+            rumBottle = new RumBottle(topLeftCorner, dimensions, renderable, this);
+            rumBottle.setTag(PepseGameManager.RUM_TAG);
+            if (parallelUpdater != null) {
+                rumBottle.updateWith(parallelUpdater);
+            }
+        }
+        rumBottle.setTopLeftCorner(topLeftCorner);
+        rumBottle.setVelocity(velocity);
+        if (numOfActiveBottles == activeBottles.length) {
+            activeBottles = Arrays.copyOf(activeBottles, activeBottles.length * GROWTH_FACTOR);
+            timesToLanding = Arrays.copyOf(timesToLanding, timesToLanding.length * GROWTH_FACTOR);
+        }
+        activeBottles[numOfActiveBottles] = rumBottle;
+        timesToLanding[numOfActiveBottles] = timeToLanding(topLeftCorner);
+        numOfActiveBottles++;
+        gameObjects.addGameObject(rumBottle, PepseGameManager.RUM_LAYER);
+    }
+
+    /**
+     * Shatters the bottles whose landing time passed. Should be called once per step, after the bottles
+     * moved.
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last step.
+     */
+    public void update(float deltaTime) {
+        for (int bottle = numOfActiveBottles - 1; bottle >= 0; bottle--) {
+            timesToLanding[bottle] -= deltaTime;
+            if (timesToLanding[bottle] > 0) {
+                continue;
+            }
+            breakingBottleSound.play();
+            if (collectedBottles.value() > MIN_SCORE) {
+                collectedBottles.decrement();
+            }
+            release(bottle);
+        }
+    }
+
+    /**
+     * Scores a bottle the avatar caught. Bottles that were already resolved are ignored.
+     *
+     * @param rumBottle the caught bottle
+     */
+    public void collect(RumBottle rumBottle) {
+        int bottle = indexOf(rumBottle);
+        if (bottle < 0) {
+            return;
+        }
+        collectedBottles.increaseBy(INCREASE_VALUE);
+        if (collectedBottles.value() < PepseGameManager.WINNING_BAR) {
+            drinkingBottleSound.play();
+        }
+        release(bottle);
+    }
+
+    /**
+     * Removes every falling bottle from the game without scoring it, the bottles return to the pool.
+     */
+    public void clear() {
+        while (numOfActiveBottles > 0) {
+            release(numOfActiveBottles - 1);
+        }
+    }
+
+    //================ private methods ================
+
+    /*
+     * @return seconds until a bottle dropped from the location reaches the highest terrain block under it
+     */
+    private float timeToLanding(Vector2 topLeftCorner) {
+        if (velocity.y() <= 0) {
+            return Float.POSITIVE_INFINITY;
+        }
+        float surface = Float.POSITIVE_INFINITY;
+        for (float x = topLeftCorner.x(); x < topLeftCorner.x() + dimensions.x(); x += Block.SIZE) {
+            surface = Math.min(surface, worldQuery.surfaceAt(x));
+        }
+        surface = Math.min(surface, worldQuery.surfaceAt(topLeftCorner.x() + dimensions.x() - 1));
+        return Math.max(0, (surface - topLeftCorner.y() - dimensions.y()) / velocity.y());
+    }
+
+    /*
+     * removes an active bottle from the game and returns it to the pool
+     */
+    private void release(int bottle) {
+        RumBottle rumBottle = activeBottles[bottle];
+        gameObjects.removeGameObject(rumBottle, PepseGameManager.RUM_LAYER);
+        numOfActiveBottles--;
+        activeBottles[bottle] = activeBottles[numOfActiveBottles];
+        timesToLanding[bottle] = timesToLanding[numOfActiveBottles];
+        activeBottles[numOfActiveBottles] = null;
+        pool.push(rumBottle);
+    }
+
+    /*
+     * @return index of the bottle among the active bottles, -1 if it isn't active
+     */
+    private int indexOf(RumBottle rumBottle) {
+        for (int bottle = 0; bottle < numOfActiveBottles; bottle++) {
+            if (activeBottles[bottle] == rumBottle) {
+                return bottle;
+            }
+        }
+        return -1;
+    }
+}
@@ -4,7 +4,9 @@ import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.components.CoordinateSpace;
 import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.world.daynight.DayNightClock;
 
 import java.awt.*;
 
@@ -17,27 +19,47 @@ public class Sky {
 
     //================ private constants ==============
 
-    private static final Color BASIC_SKY_COLOR = Color.decode("#80C6E5");
     private static final String SKY_TAG = "sky-tag";
 
     //================ public methods =================
 
     /**
-     * This function creates a light blue rectangle which is always at the back of the window.
+     * This function creates a rectangle which is always at the back of the window, tinted by the time of
+     * day - light blue at noon, dusk colors in the evening and dark blue at midnight.
      *
      * @param gameObjects      The collection of all participating game objects.
      * @param windowDimensions dimension of sky
      * @param skyLayer         The number of the layer to which the created sky should be added.
+     * @param dayNightClock    The time of day, the sky color of every step is looked up in it.
      * @return sky
      */
     public static GameObject create(GameObjectCollection gameObjects,
-                                    Vector2 windowDimensions, int skyLayer) {
+                                    Vector2 windowDimensions, int skyLayer, DayNightClock dayNightClock) {
+        Renderable[] skyRenderables = skyRenderables(dayNightClock);
         GameObject sky = new GameObject(
-                Vector2.ZERO, windowDimensions,
-                new RectangleRenderable(BASIC_SKY_COLOR)); //creates sky object
+                Vector2.ZERO, windowDimensions, skyRenderables[0]); //creates sky object
         sky.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES); //sky will follow the screen
         gameObjects.addGameObject(sky, skyLayer);
         sky.setTag(SKY_TAG);
+        dayNightClock.bind(sky, step -> sky.renderer().setRenderable(skyRenderables[step]));
         return sky;
     }
+
+    //================ private methods ================
+
+    /*
+     * @return the sky renderable of every step of the day, consecutive steps of the same color share one
+     */
+    private static Renderable[] skyRenderables(DayNightClock dayNightClock) {
+        Renderable[] skyRenderables = new Renderable[DayNightClock.STEPS];
+        for (int step = 0; step < DayNightClock.STEPS; step++) {
+            int color = dayNightClock.getSkyColor(step);
+            if (step > 0 && color == dayNightClock.getSkyColor(step - 1)) {
+                skyRenderables[step] = skyRenderables[step - 1];
+            } else {
+                skyRenderables[step] = new RectangleRenderable(new Color(color));
+            }
+        }
+        return skyRenderables;
+    }
 }
@@ -0,0 +1,47 @@
+package pepse.world;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+/**
+ * A block that never moves, changes or animates - terrain and tree trunks. It skips the per-frame update
+ * of the engine (transform, components and physics), so it costs nothing while the game runs.
+ *
+ * @author Tamuz Gitler
+ */
+public class StaticBlock extends Block {
+
+    //================ constructor ====================
+
+    /**
+     * Constructor.
+     *
+     * @param topLeftCorner The location of the top-left corner of the created block.
+     * @param renderable    A renderable to render as the block, should not be animated.
+     */
+    public StaticBlock(Vector2 topLeftCorner, Renderable renderable) {
+        super(topLeftCorner, renderable);
+    }
+
+    /**
+     * Constructor for merged blocks, used where the terrain is drawn at a lower level of detail.
+     *
+     * @param topLeftCorner The location of the top-left corner of the created block.
+     * @param dimensions    Dimensions of the block, multiples of Block.SIZE.
+     * @param renderable    A renderable to render as the block, should not be animated.
+     */
+    public StaticBlock(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
+        super(topLeftCorner, dimensions, renderable);
+    }
+
+    //================ public methods =================
+
+    /**
+     * does nothing - a static block has no velocity, components or animation to update
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+    }
+}
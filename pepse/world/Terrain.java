@@ -1,12 +1,13 @@
 package pepse.world;
 
 import danogl.GameObject;
-import danogl.collisions.GameObjectCollection;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
 import pepse.util.PerlinNoise;
 import pepse.PepseGameManager;
 import pepse.util.ColorSupplier;
+import pepse.world.chunks.Chunk;
+import pepse.world.chunks.ColumnDescriptor;
 
 import java.awt.*;
 import java.util.Objects;
@@ -43,35 +44,46 @@ public class Terrain {
 
     private final float groundHeightAtX0;
 
-    private final GameObjectCollection gameObjects;
-
     private final PerlinNoise myNoiseGenerator;
 
     private final Vector2 windowDimensions;
 
-    private Random randomAccordingToXCoordinate;
+    private final WorldEdits worldEdits;
 
     //================ constructor ====================
 
     /**
      * Constructor
      *
-     * @param gameObjects      The collection of all participating game objects.
      * @param groundLayer      The number of the layer to which the created ground objects should be added.
      * @param windowDimensions The dimensions of the windows.
      * @param seed             - A seed for a random number generator.
      */
-    public Terrain(GameObjectCollection gameObjects,
-                   int groundLayer,
+    public Terrain(int groundLayer,
                    Vector2 windowDimensions,
                    int seed) {
+        this(groundLayer, windowDimensions, seed, new WorldEdits());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param groundLayer      The number of the layer to which the created ground objects should be added.
+     * @param windowDimensions The dimensions of the windows.
+     * @param seed             - A seed for a random number generator.
+     * @param worldEdits       player modifications applied on top of the generated terrain.
+     */
+    public Terrain(int groundLayer,
+                   Vector2 windowDimensions,
+                   int seed,
+                   WorldEdits worldEdits) {
         /* init fields */
-        this.gameObjects = gameObjects;
         this.groundLayer = groundLayer;
         this.windowDimensions = windowDimensions;
         this.seed = seed;
         this.myNoiseGenerator = new PerlinNoise(seed);
         this.groundHeightAtX0 = windowDimensions.y() * HEIGHT_FACTOR;
+        this.worldEdits = worldEdits;
     }
 
     //================ public methods =================
@@ -88,43 +100,218 @@ public class Terrain {
     }
 
     /**
-     * This method creates terrain in a given range of x-values.
+     * Fingerprint of everything the terrain generation depends on, changes whenever a generator constant
+     * changes so stale cached chunks are not reused.
+     *
+     * @return fingerprint of the terrain generator
+     */
+    public int generatorFingerprint() {
+        return Objects.hash(seed, windowDimensions.y(), SECOND_FLOOR, WINDOW_PADDING, NOISE_DIVIDER,
+                NOISE_MULT, HEIGHT_FACTOR, BASE_GROUND_COLOR.getRGB(), Block.SIZE);
+    }
+
+    /**
+     * Describes the terrain columns in a given range of x-values without creating any game object.
+     * Safe to call from several threads at once.
      *
      * @param minRange The lower bound of the given range (will be rounded to a multiple of Block.SIZE).
-     * @param maxRange The upper bound of the given range (will be rounded to a multiple of Block.SIZE).
+     * @param maxRange The upper bound of the given range, exclusive (will be rounded to a multiple of
+     *                 Block.SIZE).
+     * @return the columns in range, left to right
      */
+    public ColumnDescriptor[] describeInRange(int minRange, int maxRange) {
+        int roundedMinX = minRange - Math.floorMod(minRange, (int) Block.SIZE);
+        int roundedMaxX = maxRange + Math.floorMod(-maxRange, (int) Block.SIZE); //exclusive bound
+        ColumnDescriptor[] columns = new ColumnDescriptor[(int) ((roundedMaxX - roundedMinX) / Block.SIZE)];
+        int column = 0;
+        for (int curX = roundedMinX; curX < roundedMaxX; curX += Block.SIZE) {
+            columns[column++] = describeColumn(curX);
+        }
+        return columns;
+    }
 
-    public void createInRange(int minRange, int maxRange) {
-        int roundedMinX = (int) (minRange - minRange % Block.SIZE);
-        int roundedMaxX = (int) ((maxRange + Block.SIZE) - maxRange % Block.SIZE);
-        int terrain_floor = FIRST_FLOOR;
-        boolean notChanged = true; //for creating first terrain level in diffrenet layer
-        int collideLayer = PepseGameManager.COLLIDABLE_TERRIAN_LAYER;
+    /**
+     * Describes the terrain column at given x. Safe to call from several threads at once.
+     *
+     * @param x x coordinate of the column (multiple of Block.SIZE)
+     * @return the column descriptor
+     */
+    public ColumnDescriptor describeColumn(int x) {
+        Random randomAccordingToXCoordinate = new Random(hashCode(x, seed));
+        int topY = (int) (Math.floor(groundHeightAt(x) / Block.SIZE) * Block.SIZE); //aligned like trees
+        int numOfBlocks = (int) Math.ceil((windowDimensions.y() + WINDOW_PADDING - topY) / Block.SIZE);
+        int[] blockColors = new int[Math.max(numOfBlocks, 0)];
+        for (int block = 0; block < blockColors.length; block++) {
+            blockColors[block] = ColorSupplier.approximateColor(BASE_GROUND_COLOR,
+                    randomAccordingToXCoordinate).getRGB();
+        }
+        return new ColumnDescriptor(x, topY, blockColors);
+    }
 
-        for (int curX = roundedMinX; curX < roundedMaxX; curX += Block.SIZE) {
+    /**
+     * Creates the blocks of a described column. The top floors are collidable, the rest are added to the
+     * ground layer. Columns next to player edits are created cell by cell through the edits overlay.
+     *
+     * @param column descriptor of the column to create
+     * @param chunk  the resident chunk the blocks are added to
+     */
+    public void createColumn(ColumnDescriptor column, Chunk chunk) {
+        int columnIndex = (int) (column.getX() / Block.SIZE);
+        if (worldEdits.hasEdits(columnIndex - 1) || worldEdits.hasEdits(columnIndex) ||
+                worldEdits.hasEdits(columnIndex + 1)) {
+            createEditedColumn(column, columnIndex, chunk);
+            return;
+        }
+        int[] blockColors = column.getBlockColors();
+        for (int terrainFloor = FIRST_FLOOR; terrainFloor < blockColors.length; terrainFloor++) {
+            int curLayer = terrainFloor < SECOND_FLOOR ? PepseGameManager.COLLIDABLE_TERRIAN_LAYER :
+                    this.groundLayer;
+            RectangleRenderable rectangleRenderable = new RectangleRenderable(
+                    new Color(blockColors[terrainFloor]));
+            GameObject curBlock = new StaticBlock(
+                    new Vector2(column.getX(), column.getTopY() + terrainFloor * Block.SIZE),
+                    rectangleRenderable); //creates block object
+            chunk.addGameObject(curBlock, curLayer);
+            curBlock.setTag(TERRAIN_TAG);
+        }
+    }
 
-            int curLayer = collideLayer;
-            this.randomAccordingToXCoordinate = new Random(hashCode(curX, seed));
-            float y = (((groundHeightAt(curX) / Block.SIZE)) * (Block.SIZE));
-
-            for (int curY = (int) y; curY < windowDimensions.y() + WINDOW_PADDING; curY += Block.SIZE) {
-                if (terrain_floor == SECOND_FLOOR && notChanged) {
-                    curLayer = this.groundLayer;
-                    notChanged = false;
-                }
-                RectangleRenderable rectangleRenderable = new RectangleRenderable(
-                        ColorSupplier.approximateColor(BASE_GROUND_COLOR));
-                GameObject curBlock = new Block(
-                        new Vector2(curX, curY),
-                        rectangleRenderable); //creates block object
-                this.gameObjects.addGameObject(curBlock, curLayer);
-                curBlock.setTag(TERRAIN_TAG);
-                terrain_floor++;
+    /**
+     * Creates a group of neighbouring columns as merged blocks - every block is as wide as the group and
+     * levelOfDetail blocks high, and nothing is collidable. Groups next to player edits are not merged.
+     *
+     * @param columns       described columns of a chunk
+     * @param first         index of the first column of the group
+     * @param levelOfDetail number of columns (and rows) merged into a block
+     * @param chunk         the resident chunk the blocks are added to
+     * @return false if the group was not merged because of player edits, nothing is created then
+     */
+    public boolean createMergedColumns(ColumnDescriptor[] columns, int first, int levelOfDetail,
+                                       Chunk chunk) {
+        int last = Math.min(first + levelOfDetail, columns.length); //exclusive
+        int topY = Integer.MAX_VALUE;
+        int bottomY = Integer.MIN_VALUE;
+        for (int column = first; column < last; column++) {
+            int columnIndex = (int) (columns[column].getX() / Block.SIZE);
+            if (worldEdits.hasEdits(columnIndex - 1) || worldEdits.hasEdits(columnIndex) ||
+                    worldEdits.hasEdits(columnIndex + 1)) {
+                return false;
             }
+            topY = Math.min(topY, columns[column].getTopY()); //the highest column, so no holes are left
+            bottomY = Math.max(bottomY, (int) (columns[column].getTopY() +
+                    columns[column].getBlockColors().length * Block.SIZE));
+        }
+        ColumnDescriptor firstColumn = columns[first];
+        int[] blockColors = firstColumn.getBlockColors();
+        Vector2 dimensions = new Vector2((last - first) * Block.SIZE, levelOfDetail * Block.SIZE);
+        for (int y = topY; y < bottomY; y += dimensions.y()) {
+            int colorIndex = (int) ((y - firstColumn.getTopY()) / Block.SIZE);
+            Color color = new Color(blockColors[Math.max(0, Math.min(colorIndex, blockColors.length - 1))]);
+            GameObject mergedBlock = new StaticBlock(new Vector2(firstColumn.getX(), y), dimensions,
+                    new RectangleRenderable(color));
+            chunk.addGameObject(mergedBlock, this.groundLayer);
+            mergedBlock.setTag(TERRAIN_TAG);
+        }
+        return true;
+    }
+
+    /**
+     * @param column column of the cell (x / Block.SIZE)
+     * @param row    row of the cell (y / Block.SIZE)
+     * @return WorldEdits.GROUND or WorldEdits.AIR, taking player edits into account
+     */
+    public int blockAt(int column, int row) {
+        int edited = worldEdits.get(column, row);
+        if (edited != WorldEdits.NOT_EDITED) {
+            return edited;
+        }
+        return row >= naturalTopRow(column) ? WorldEdits.GROUND : WorldEdits.AIR;
+    }
+
+    /**
+     * @param column column to check (x / Block.SIZE)
+     * @return true if the player edited any cell of the column
+     */
+    public boolean hasEdits(int column) {
+        return worldEdits.hasEdits(column);
+    }
+
+    /**
+     * @param column column to check (x / Block.SIZE)
+     * @return row of the highest block of the column, taking player edits into account
+     */
+    public int surfaceRowAt(int column) {
+        int topRow = naturalTopRow(column);
+        if (!worldEdits.hasEdits(column)) {
+            return topRow;
+        }
+        int row = Math.min(worldEdits.minEditedRow(column, topRow), topRow);
+        while (blockAt(column, row) == WorldEdits.AIR) {
+            row++;
+        }
+        return row;
+    }
+
+    /**
+     * Puts a block in a cell. Only differences from the generated terrain are kept in the edits overlay.
+     *
+     * @param column  column of the cell (x / Block.SIZE)
+     * @param row     row of the cell (y / Block.SIZE)
+     * @param blockId WorldEdits.GROUND or WorldEdits.AIR
+     */
+    public void setBlock(int column, int row, int blockId) {
+        int generated = row >= naturalTopRow(column) ? WorldEdits.GROUND : WorldEdits.AIR;
+        if (blockId == generated) {
+            worldEdits.clear(column, row);
+            return;
         }
+        worldEdits.set(column, row, blockId);
     }
+
     //================ private methods =================
 
+    /*
+     * @return row of the top block of the generated column
+     */
+    private int naturalTopRow(int column) {
+        return (int) Math.floor(groundHeightAt(column * Block.SIZE) / Block.SIZE);
+    }
+
+    /*
+     * @return true if the cell is air, taking player edits into account
+     */
+    private boolean isAir(int column, int row) {
+        return blockAt(column, row) == WorldEdits.AIR;
+    }
+
+    /*
+     * creates a column next to player edits - removed cells are skipped, placed cells above the surface are
+     * added, and every block near air is collidable
+     */
+    private void createEditedColumn(ColumnDescriptor column, int columnIndex, Chunk chunk) {
+        int[] blockColors = column.getBlockColors();
+        int topRow = (int) (column.getTopY() / Block.SIZE);
+        int bottomRow = topRow + blockColors.length;
+        int firstRow = Math.min(worldEdits.minEditedRow(columnIndex, topRow), topRow);
+        for (int row = firstRow; row < bottomRow; row++) {
+            if (isAir(columnIndex, row)) {
+                continue;
+            }
+            boolean exposed = isAir(columnIndex, row - 1) || isAir(columnIndex, row - SECOND_FLOOR) ||
+                    isAir(columnIndex - 1, row) || isAir(columnIndex + 1, row) ||
+                    isAir(columnIndex, row + 1);
+            Color color = row >= topRow ? new Color(blockColors[row - topRow]) :
+                    ColorSupplier.approximateColor(BASE_GROUND_COLOR,
+                            new Random(Objects.hash(columnIndex, row, seed))); //placed by the player
+            GameObject curBlock = new StaticBlock(new Vector2(column.getX(), row * Block.SIZE),
+                    new RectangleRenderable(color));
+            chunk.addGameObject(curBlock, exposed ? PepseGameManager.COLLIDABLE_TERRIAN_LAYER :
+                    this.groundLayer);
+            curBlock.setTag(TERRAIN_TAG);
+        }
+    }
+
+
     /*
      * calculates hash of curx and seed
      * @param curX on terrain
@@ -0,0 +1,110 @@
+package pepse.world;
+
+import pepse.util.LongIntHashMap;
+
+/**
+ * A sparse overlay of player modifications on top of the procedural world. Only cells that differ from
+ * the generated world are stored, keyed by their packed (column, row) block coordinate, so memory grows
+ * with the number of edits and not with the size of the world.
+ *
+ * @author Tamuz Gitler
+ */
+public class WorldEdits {
+
+    //================ public constants ===============
+
+    public static final int AIR = 0;
+    public static final int GROUND = 1;
+    public static final int NOT_EDITED = -1;
+
+    //================ private constants ==============
+
+    private static final int ROW_BITS = 32;
+    private static final long ROW_MASK = 0xFFFFFFFFL;
+    private static final int NO_EDITS = 0;
+
+    //================ fields =========================
+
+    private final LongIntHashMap blocks = new LongIntHashMap();
+    private final LongIntHashMap editsInColumn = new LongIntHashMap();
+    private final LongIntHashMap minEditedRow = new LongIntHashMap();
+
+    //================ public methods =================
+
+    /**
+     * @param column column of the cell (x / Block.SIZE)
+     * @param row    row of the cell (y / Block.SIZE)
+     * @return block id the player put in the cell, or NOT_EDITED
+     */
+    public int get(int column, int row) {
+        return blocks.get(pack(column, row), NOT_EDITED);
+    }
+
+    /**
+     * records that the cell holds the given block
+     *
+     * @param column  column of the cell
+     * @param row     row of the cell
+     * @param blockId AIR or GROUND
+     */
+    public void set(int column, int row, int blockId) {
+        long cell = pack(column, row);
+        if (!blocks.containsKey(cell)) {
+            editsInColumn.put(column, editsInColumn.get(column, NO_EDITS) + 1);
+            minEditedRow.put(column, Math.min(row, minEditedRow.get(column, row)));
+        }
+        blocks.put(cell, blockId);
+    }
+
+    /**
+     * forgets the edit of a cell, it goes back to its generated block
+     *
+     * @param column column of the cell
+     * @param row    row of the cell
+     */
+    public void clear(int column, int row) {
+        if (!blocks.remove(pack(column, row))) {
+            return;
+        }
+        int edits = editsInColumn.get(column, NO_EDITS) - 1;
+        if (edits == NO_EDITS) {
+            editsInColumn.remove(column);
+            minEditedRow.remove(column);
+            return;
+        }
+        editsInColumn.put(column, edits);
+    }
+
+    /**
+     * @param column column to check
+     * @return true if any cell of the column was edited
+     */
+    public boolean hasEdits(int column) {
+        return editsInColumn.containsKey(column);
+    }
+
+    /**
+     * @param column       column to check
+     * @param defaultValue returned when the column has no edits
+     * @return the highest (smallest) row that was ever edited in the column
+     */
+    public int minEditedRow(int column, int defaultValue) {
+        return minEditedRow.get(column, defaultValue);
+    }
+
+    /**
+     * @return number of edited cells
+     */
+    public int size() {
+        return blocks.size();
+    }
+
+    //================ private methods ================
+
+    /*
+     * packs a cell coordinate to a single long
+     */
+    private static long pack(int column, int row) {
+        return ((long) column << ROW_BITS) | (row & ROW_MASK);
+    }
+}
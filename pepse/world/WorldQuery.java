@@ -0,0 +1,266 @@
+package pepse.world;
+
+import danogl.util.Vector2;
+import pepse.world.chunks.ChunkDescriptor;
+import pepse.world.chunks.ChunkGenerator;
+import pepse.world.chunks.ColumnDescriptor;
+import pepse.world.chunks.TreeDescriptor;
+
+import java.util.Arrays;
+
+/**
+ * Answers spatial questions about the world without scanning layers of game objects.
+ * Every resident chunk keeps a compact grid of block ids and the surface row of each of its columns,
+ * so blockAt and surfaceAt are O(1) and a raycast is O(cells traversed). Columns outside the resident
+ * chunks are answered from the terrain generator and the edits overlay.
+ *
+ * @author Tamuz Gitler
+ */
+public class WorldQuery {
+
+    //================ public constants ===============
+
+    public static final int TRUNK = 2;
+    public static final int LEAF = 3;
+    public static final int SOLID_TERRAIN_MASK = 1 << WorldEdits.GROUND;
+    public static final int SOLID_MASK = SOLID_TERRAIN_MASK | 1 << TRUNK;
+
+    //================ private constants ==============
+
+    private static final int ROWS_ABOVE_WINDOW = 24; //room for tree tops and placed blocks
+    private static final int WINDOW_PADDING_ROWS = 3;
+    private static final int MAX_RESIDENT_CHUNKS = 64; //ring of grids, far larger than any render range
+    private static final int NOT_RESIDENT = Integer.MIN_VALUE;
+
+    //================ fields =========================
+
+    private final Terrain terrain;
+    private final int minRow;
+    private final int numOfRows;
+    private final int[] gridChunkIndex = new int[MAX_RESIDENT_CHUNKS];
+    private final byte[][] grids = new byte[MAX_RESIDENT_CHUNKS][];
+    private final int[][] surfaceRows = new int[MAX_RESIDENT_CHUNKS][];
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param terrain          answers for columns that aren't resident
+     * @param windowDimensions The dimensions of the windows.
+     */
+    public WorldQuery(Terrain terrain, Vector2 windowDimensions) {
+        this.terrain = terrain;
+        this.minRow = -ROWS_ABOVE_WINDOW;
+        this.numOfRows = ROWS_ABOVE_WINDOW + (int) Math.ceil(windowDimensions.y() / Block.SIZE) +
+                WINDOW_PADDING_ROWS;
+        Arrays.fill(gridChunkIndex, NOT_RESIDENT);
+        for (int slot = 0; slot < MAX_RESIDENT_CHUNKS; slot++) {
+            grids[slot] = new byte[ChunkGenerator.CHUNK_COLUMNS * numOfRows];
+            surfaceRows[slot] = new int[ChunkGenerator.CHUNK_COLUMNS];
+        }
+    }
+
+    //================ public methods =================
+
+    /**
+     * Fills the grid of a chunk that became resident from its descriptor and the edits overlay.
+     *
+     * @param chunkIndex index of the chunk
+     * @param descriptor descriptor of the chunk
+     */
+    public void addChunk(int chunkIndex, ChunkDescriptor descriptor) {
+        int slot = slotOf(chunkIndex);
+        byte[] grid = grids[slot];
+        Arrays.fill(grid, (byte) WorldEdits.AIR);
+        gridChunkIndex[slot] = chunkIndex;
+        for (ColumnDescriptor column : descriptor.getColumns()) {
+            refreshColumn(columnOf(column.getX()));
+        }
+        for (TreeDescriptor tree : descriptor.getTrees()) {
+            int trunkColumn = columnOf(tree.getX());
+            for (int block = 0; block < tree.getTrunkColors().length; block++) {
+                setIfAir(trunkColumn, rowOf(tree.getFloorY() - block * Block.SIZE), TRUNK);
+            }
+            for (int leaf = 0; leaf < tree.getNumOfLeaves(); leaf++) {
+                setIfAir(columnOf(tree.getLeafX(leaf)), rowOf(tree.getLeafY(leaf)), LEAF);
+            }
+        }
+    }
+
+    /**
+     * Forgets the grid of a chunk that left the render range.
+     *
+     * @param chunkIndex index of the chunk
+     */
+    public void removeChunk(int chunkIndex) {
+        int slot = slotOf(chunkIndex);
+        if (gridChunkIndex[slot] == chunkIndex) {
+            gridChunkIndex[slot] = NOT_RESIDENT;
+        }
+    }
+
+    /**
+     * Recomputes the terrain cells and surface of a resident column, used after the column was edited.
+     * Tree cells of the column are kept.
+     *
+     * @param column column to refresh (x / Block.SIZE)
+     */
+    public void refreshColumn(int column) {
+        int slot = residentSlot(column);
+        if (slot == NOT_RESIDENT) {
+            return;
+        }
+        byte[] grid = grids[slot];
+        int columnInChunk = Math.floorMod(column, ChunkGenerator.CHUNK_COLUMNS);
+        int surfaceRow = terrain.surfaceRowAt(column);
+        boolean edited = terrain.hasEdits(column);
+        for (int row = 0; row < numOfRows; row++) {
+            int cell = columnInChunk * numOfRows + row;
+            if (grid[cell] == WorldEdits.AIR || grid[cell] == WorldEdits.GROUND) {
+                int worldRow = row + minRow;
+                int blockId = worldRow >= surfaceRow ? WorldEdits.GROUND : WorldEdits.AIR;
+                grid[cell] = (byte) (edited ? terrain.blockAt(column, worldRow) : blockId);
+            }
+        }
+        surfaceRows[slot][columnInChunk] = surfaceRow;
+    }
+
+    /**
+     * @param x x coordinate in the world
+     * @param y y coordinate in the world
+     * @return block id of the cell holding the point
+     */
+    public int blockAt(float x, float y) {
+        return blockAtCell(columnOf(x), rowOf(y));
+    }
+
+    /**
+     * @param column column of the cell (x / Block.SIZE)
+     * @param row    row of the cell (y / Block.SIZE)
+     * @return block id of the cell
+     */
+    public int blockAtCell(int column, int row) {
+        int slot = residentSlot(column);
+        if (slot == NOT_RESIDENT || row < minRow || row >= minRow + numOfRows) {
+            return terrain.blockAt(column, row);
+        }
+        return grids[slot][Math.floorMod(column, ChunkGenerator.CHUNK_COLUMNS) * numOfRows + row - minRow];
+    }
+
+    /**
+     * @param x x coordinate in the world
+     * @return y coordinate of the top of the highest terrain block of the column holding x
+     */
+    public float surfaceAt(float x) {
+        return surfaceRowAt(columnOf(x)) * Block.SIZE;
+    }
+
+    /**
+     * @param column column to check (x / Block.SIZE)
+     * @return row of the highest terrain block of the column
+     */
+    public int surfaceRowAt(int column) {
+        int slot = residentSlot(column);
+        if (slot == NOT_RESIDENT) {
+            return terrain.surfaceRowAt(column);
+        }
+        return surfaceRows[slot][Math.floorMod(column, ChunkGenerator.CHUNK_COLUMNS)];
+    }
+
+    /**
+     * Walks the cells along a ray (integer DDA) and reports the first cell whose block is in the mask.
+     *
+     * @param originX     x coordinate the ray starts at
+     * @param originY     y coordinate the ray starts at
+     * @param directionX  x component of the ray direction
+     * @param directionY  y component of the ray direction
+     * @param maxDistance the ray length
+     * @param solidMask   bit mask of the block ids that stop the ray, e.g. SOLID_MASK
+     * @param hit         filled with the hit cell when the ray hits
+     * @return true if the ray hit a cell in the mask within maxDistance
+     */
+    public boolean raycast(float originX, float originY, float directionX, float directionY,
+                           float maxDistance, int solidMask, RaycastHit hit) {
+        float length = (float) Math.sqrt(directionX * directionX + directionY * directionY);
+        if (length == 0) {
+            return false;
+        }
+        float dirX = directionX / length;
+        float dirY = directionY / length;
+        int column = columnOf(originX);
+        int row = rowOf(originY);
+        int stepColumn = dirX > 0 ? 1 : -1;
+        int stepRow = dirY > 0 ? 1 : -1;
+        float deltaX = dirX == 0 ? Float.POSITIVE_INFINITY : Math.abs(Block.SIZE / dirX);
+        float deltaY = dirY == 0 ? Float.POSITIVE_INFINITY : Math.abs(Block.SIZE / dirY);
+        float nextX = dirX == 0 ? Float.POSITIVE_INFINITY :
+                ((dirX > 0 ? column + 1 : column) * Block.SIZE - originX) / dirX;
+        float nextY = dirY == 0 ? Float.POSITIVE_INFINITY :
+                ((dirY > 0 ? row + 1 : row) * Block.SIZE - originY) / dirY;
+        float distance = 0;
+        while (distance <= maxDistance) {
+            int blockId = blockAtCell(column, row);
+            if ((solidMask & (1 << blockId)) != 0) {
+                hit.set(column, row, blockId, distance);
+                return true;
+            }
+            if (nextX < nextY) {
+                distance = nextX;
+                nextX += deltaX;
+                column += stepColumn;
+            } else {
+                distance = nextY;
+                nextY += deltaY;
+                row += stepRow;
+            }
+        }
+        return false;
+    }
+
+    //================ private methods ================
+
+    /*
+     * sets a cell of a resident chunk unless it already holds a block
+     */
+    private void setIfAir(int column, int row, int blockId) {
+        int slot = residentSlot(column);
+        if (slot == NOT_RESIDENT || row < minRow || row >= minRow + numOfRows) {
+            return;
+        }
+        int cell = Math.floorMod(column, ChunkGenerator.CHUNK_COLUMNS) * numOfRows + row - minRow;
+        if (grids[slot][cell] == WorldEdits.AIR) {
+            grids[slot][cell] = (byte) blockId;
+        }
+    }
+
+    /*
+     * @return slot of the column's chunk, or NOT_RESIDENT
+     */
+    private int residentSlot(int column) {
+        int chunkIndex = Math.floorDiv(column, ChunkGenerator.CHUNK_COLUMNS);
+        int slot = slotOf(chunkIndex);
+        return gridChunkIndex[slot] == chunkIndex ? slot : NOT_RESIDENT;
+    }
+
+    /*
+     * @return ring slot of the chunk
+     */
+    private static int slotOf(int chunkIndex) {
+        return Math.floorMod(chunkIndex, MAX_RESIDENT_CHUNKS);
+    }
+
+    /*
+     * @return column holding x
+     */
+    private static int columnOf(float x) {
+        return (int) Math.floor(x / Block.SIZE);
+    }
+
+    /*
+     * @return row holding y
+     */
+    private static int rowOf(float y) {
+        return (int) Math.floor(y / Block.SIZE);
+    }
+}
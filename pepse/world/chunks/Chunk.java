@@ -0,0 +1,349 @@
+package pepse.world.chunks;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import pepse.PepseGameManager;
+import pepse.world.Block;
+import pepse.world.CullingGroup;
+import pepse.world.RenderCuller;
+import pepse.world.StaticBlock;
+import pepse.world.Terrain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A resident chunk of the world - remembers every game object created for it and the layer it was added
+ * to, so the chunk can be evicted without scanning the layers of the game object collection.
+ * Static terrain blocks are baked into a single StaticBatch sprite of the chunk instead of being drawn one
+ * by one, and collidable terrain blocks are only registered in the collidable layer while their column is
+ * inside the collision window. The chunk is also the culling group of its blocks - while the bounds of its
+ * blocks are outside the camera, none of them is tested alone.
+ *
+ * @author Tamuz Gitler
+ */
+public class Chunk implements CullingGroup {
+
+    //================ public constants ===============
+
+    public static final int FULL_DETAIL = 1;
+
+    //================ private constants ==============
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int GROWTH_FACTOR = 2;
+    private static final float CULLING_MARGIN = Block.SIZE; //leafs stretch while they sway
+    private static final int NOT_CHECKED = -1;
+
+    //================ fields =========================
+
+    private final int index;
+    private final GameObjectCollection gameObjects;
+    private final List<GameObject> objects = new ArrayList<>(INITIAL_CAPACITY);
+    private int[] layers = new int[INITIAL_CAPACITY];
+    private final boolean[] createdColumns = new boolean[ChunkGenerator.CHUNK_COLUMNS];
+    private final boolean[] builtColumns = new boolean[ChunkGenerator.CHUNK_COLUMNS]; //full detail or merged
+    private int numOfBuiltColumns;
+    private final boolean[] collidableColumns = new boolean[ChunkGenerator.CHUNK_COLUMNS];
+    private final List<List<GameObject>> collidableBlocks = new ArrayList<>(ChunkGenerator.CHUNK_COLUMNS);
+    private final StaticBatch staticBatch;
+    private final RenderCuller renderCuller;
+    private ChunkDescriptor descriptor;
+    private boolean discarded;
+    private int levelOfDetail = FULL_DETAIL;
+    private float cullingMinX; //horizontal bounds of the blocks of the chunk
+    private float cullingMaxX;
+    private int checkedFrame = NOT_CHECKED;
+    private boolean isOnCamera;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param index        index of the chunk, it covers [index * CHUNK_WIDTH, (index + 1) * CHUNK_WIDTH)
+     * @param gameObjects  The collection of all participating game objects.
+     * @param collidable   whether the columns start inside the collision window
+     * @param renderCuller culler of the game, blocks of the chunk are culled with it
+     */
+    public Chunk(int index, GameObjectCollection gameObjects, boolean collidable, RenderCuller renderCuller) {
+        this.index = index;
+        this.gameObjects = gameObjects;
+        this.renderCuller = renderCuller;
+        this.cullingMinX = getMinX();
+        this.cullingMaxX = getMaxX();
+        Arrays.fill(collidableColumns, collidable);
+        for (int column = 0; column < ChunkGenerator.CHUNK_COLUMNS; column++) {
+            collidableBlocks.add(new ArrayList<>());
+        }
+        this.staticBatch = new StaticBatch(this, renderCuller);
+        addGameObject(staticBatch, PepseGameManager.TERRAIN_LAYER);
+    }
+
+    //================ public methods =================
+
+    /**
+     * adds a game object to the game and remembers it as part of this chunk. Static terrain blocks are baked
+     * into the chunk static batch, and collidable ones are also registered in the collidable layer while
+     * their column is inside the collision window.
+     *
+     * @param gameObject object to add
+     * @param layer      layer to add the object to
+     */
+    public void addGameObject(GameObject gameObject, int layer) {
+        if (objects.size() == layers.length) {
+            layers = Arrays.copyOf(layers, layers.length * GROWTH_FACTOR);
+        }
+        layers[objects.size()] = layer;
+        objects.add(gameObject);
+        if (gameObject instanceof Block) {
+            ((Block) gameObject).cullWith(renderCuller, layer, this);
+            float x = gameObject.getTopLeftCorner().x();
+            cullingMinX = Math.min(cullingMinX, x - CULLING_MARGIN);
+            cullingMaxX = Math.max(cullingMaxX, x + gameObject.getDimensions().x() + CULLING_MARGIN);
+        }
+        boolean isBatched = isBatched(gameObject, layer);
+        if (isBatched) {
+            staticBatch.add(gameObject);
+            ((Block) gameObject).setDrawnByBatch(true); //collidable ones are registered, but not drawn
+        }
+        if (layer == PepseGameManager.COLLIDABLE_TERRIAN_LAYER) {
+            int column = columnInChunk((int) gameObject.getTopLeftCorner().x());
+            collidableBlocks.get(column).add(gameObject);
+            if (!collidableColumns[column]) {
+                return;
+            }
+        } else if (isBatched) {
+            return;
+        }
+        gameObjects.addGameObject(gameObject, layer);
+    }
+
+    /**
+     * registers the collidable blocks of a column in the collidable layer, or unregisters them. The blocks
+     * stay baked in the static batch either way, so the batch isn't re-baked when the window moves.
+     *
+     * @param x          x coordinate of a column of the chunk
+     * @param collidable true if the column is inside the collision window
+     */
+    public void setColumnCollidable(int x, boolean collidable) {
+        int column = columnInChunk(x);
+        if (collidableColumns[column] == collidable) {
+            return;
+        }
+        collidableColumns[column] = collidable;
+        for (GameObject block : collidableBlocks.get(column)) {
+            if (collidable) {
+                gameObjects.addGameObject(block, PepseGameManager.COLLIDABLE_TERRIAN_LAYER);
+            } else {
+                gameObjects.removeGameObject(block, PepseGameManager.COLLIDABLE_TERRIAN_LAYER);
+            }
+        }
+    }
+
+    /**
+     * removes up to maxObjects of the chunk game objects from the game, last created first
+     *
+     * @param maxObjects maximal number of objects to remove
+     * @return true if the chunk holds no more objects
+     */
+    public boolean evict(int maxObjects) {
+        for (int removed = 0; removed < maxObjects && !objects.isEmpty(); removed++) {
+            int last = objects.size() - 1;
+            removeFromGame(objects.remove(last), layers[last]);
+        }
+        return objects.isEmpty();
+    }
+
+    /**
+     * removes the terrain blocks of a single column from the game, used when the column is rebuilt
+     *
+     * @param x x coordinate of the column
+     */
+    public void removeTerrainColumn(int x) {
+        removeTerrainInRange(x, (int) (x + Block.SIZE));
+    }
+
+    /**
+     * removes the terrain blocks whose left edge is in [minX, maxX) from the game, used when a group of
+     * merged columns is replaced by its full detail columns
+     *
+     * @param minX lower bound of the columns (inclusive)
+     * @param maxX upper bound of the columns (exclusive)
+     */
+    public void removeTerrainColumns(int minX, int maxX) {
+        removeTerrainInRange(minX, maxX);
+    }
+
+    /**
+     * @return number of columns (and rows) merged into a terrain block of the chunk, FULL_DETAIL if none
+     */
+    public int getLevelOfDetail() {
+        return levelOfDetail;
+    }
+
+    /**
+     * @param levelOfDetail number of columns (and rows) merged into a terrain block of the chunk
+     */
+    public void setLevelOfDetail(int levelOfDetail) {
+        this.levelOfDetail = levelOfDetail;
+    }
+
+    /**
+     * @param x x coordinate of a column of the chunk
+     * @return true if the column blocks were created
+     */
+    public boolean isColumnCreated(int x) {
+        return createdColumns[columnInChunk(x)];
+    }
+
+    /**
+     * marks the column blocks as created
+     *
+     * @param x x coordinate of a column of the chunk
+     */
+    public void setColumnCreated(int x) {
+        createdColumns[columnInChunk(x)] = true;
+        setColumnsBuilt(x, (int) (x + Block.SIZE));
+    }
+
+    /**
+     * marks the columns whose left edge is in [minX, maxX) as having terrain, used for groups of merged
+     * columns
+     *
+     * @param minX lower bound of the columns (inclusive)
+     * @param maxX upper bound of the columns (exclusive)
+     */
+    public void setColumnsBuilt(int minX, int maxX) {
+        for (int x = minX; x < maxX; x += Block.SIZE) {
+            int column = columnInChunk(x);
+            if (!builtColumns[column]) {
+                builtColumns[column] = true;
+                numOfBuiltColumns++;
+            }
+        }
+    }
+
+    /**
+     * @return true once the terrain of every column of the chunk exists, at full detail or merged
+     */
+    public boolean hasAllColumns() {
+        return numOfBuiltColumns == ChunkGenerator.CHUNK_COLUMNS;
+    }
+
+    /**
+     * @return index of the chunk
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return lower bound of the chunk (inclusive)
+     */
+    public int getMinX() {
+        return index * ChunkGenerator.CHUNK_WIDTH;
+    }
+
+    /**
+     * @return upper bound of the chunk (exclusive)
+     */
+    public int getMaxX() {
+        return getMinX() + ChunkGenerator.CHUNK_WIDTH;
+    }
+
+    /**
+     * @return descriptor of the chunk, null while it has not been described yet
+     */
+    public ChunkDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * @param descriptor descriptor of the chunk
+     */
+    public void setDescriptor(ChunkDescriptor descriptor) {
+        this.descriptor = descriptor;
+    }
+
+    /**
+     * checks the bounds of the chunk blocks against the camera once per frame
+     *
+     * @return true if the blocks of the chunk may be inside the camera rectangle of the frame
+     */
+    @Override
+    public boolean isOnCamera() {
+        if (checkedFrame != renderCuller.getFrame()) {
+            checkedFrame = renderCuller.getFrame();
+            isOnCamera = renderCuller.isRangeVisible(cullingMinX, cullingMaxX);
+        }
+        return isOnCamera;
+    }
+
+    /**
+     * @return true if the chunk left the render range, its pending generation work should be skipped
+     */
+    public boolean isDiscarded() {
+        return discarded;
+    }
+
+    /**
+     * marks the chunk as out of the render range
+     */
+    public void discard() {
+        this.discarded = true;
+    }
+
+    //================ private methods ================
+
+    /*
+     * removes an object from the layer it was added to, and from wherever it may be drawn from
+     */
+    private void removeFromGame(GameObject gameObject, int layer) {
+        if (isBatched(gameObject, layer)) {
+            staticBatch.remove(gameObject);
+        }
+        gameObjects.removeGameObject(gameObject, layer);
+        if (layer == PepseGameManager.LEAF_LAYER) { //leaf may be falling at the moment
+            gameObjects.removeGameObject(gameObject, PepseGameManager.FALLING_LEAF_LAYER);
+        }
+    }
+
+    /*
+     * removes the terrain blocks whose left edge is in [minX, maxX) from the game
+     */
+    private void removeTerrainInRange(int minX, int maxX) {
+        int kept = 0;
+        for (int object = 0; object < objects.size(); object++) {
+            GameObject gameObject = objects.get(object);
+            float x = gameObject.getTopLeftCorner().x();
+            if (Terrain.TERRAIN_TAG.equals(gameObject.getTag()) && x >= minX && x < maxX) {
+                removeFromGame(gameObject, layers[object]);
+                continue;
+            }
+            objects.set(kept, gameObject);
+            layers[kept] = layers[object];
+            kept++;
+        }
+        objects.subList(kept, objects.size()).clear();
+        for (int x = minX; x < maxX; x += Block.SIZE) {
+            collidableBlocks.get(columnInChunk(x)).clear();
+        }
+    }
+
+    /*
+     * @return true if the object is drawn by the static batch of the chunk
+     */
+    private boolean isBatched(GameObject gameObject, int layer) {
+        return gameObject instanceof StaticBlock && (layer == PepseGameManager.TERRAIN_LAYER ||
+                layer == PepseGameManager.COLLIDABLE_TERRIAN_LAYER);
+    }
+
+    /*
+     * @return index of the column inside the chunk
+     */
+    private int columnInChunk(int x) {
+        return (int) ((x - getMinX()) / Block.SIZE);
+    }
+}
@@ -0,0 +1,285 @@
+package pepse.world.chunks;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A binary cache of chunk descriptors on disk, read back through a memory mapping.
+ * The file is a header followed by fixed size slots, chunk i is stored in slot floorMod(i, NUM_OF_SLOTS).
+ * The header holds a format version and the generator fingerprint, the whole file is invalidated when
+ * either of them changes.
+ * Slots are read and written with absolute operations only, so several threads may describe different
+ * chunks at once. The file is locked while the cache is open - a second game of the same seed, in this JVM
+ * or another, gets a disabled cache instead of clearing the mapping under the first one.
+ *
+ * @author Tamuz Gitler
+ */
+public class ChunkCache {
+
+    //================ private constants ==============
+
+    private static final int MAGIC = 0x50455053; //"PEPS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int NUM_OF_SLOTS = 512;
+    private static final int SLOT_SIZE = 16 * 1024;
+    private static final int SLOT_HEADER_SIZE = 8; //chunk index and payload length
+    private static final int EMPTY_SLOT = 0;
+    private static final int MAX_PAYLOAD_SIZE = SLOT_SIZE - SLOT_HEADER_SIZE;
+    private static final String FILE_PREFIX = "chunks_";
+    private static final String FILE_SUFFIX = ".bin";
+
+    //================ fields =========================
+
+    private final MappedByteBuffer buffer;
+    private final FileChannel channel; //holds the lock of the file, null for a disabled cache
+
+    //================ constructor ====================
+
+    /*
+     * Constructor
+     * @param buffer  mapping of the cache file, null for a disabled cache
+     * @param channel locked channel of the cache file, null for a disabled cache
+     */
+    private ChunkCache(MappedByteBuffer buffer, FileChannel channel) {
+        this.buffer = buffer;
+        this.channel = channel;
+    }
+
+    //================ public methods =================
+
+    /**
+     * Opens (or creates) the cache file of the given seed in the given directory. If the file was written
+     * by another format version or generator, it is cleared. If the file can't be mapped, or another open
+     * cache holds its lock, the returned cache is disabled.
+     *
+     * @param directory   directory of the cache files
+     * @param seed        seed of the world
+     * @param fingerprint fingerprint of the chunk generator
+     * @return the cache
+     */
+    public static ChunkCache open(Path directory, int seed, int fingerprint) {
+        Path path = directory.resolve(FILE_PREFIX + seed + FILE_SUFFIX);
+        long fileSize = HEADER_SIZE + (long) NUM_OF_SLOTS * SLOT_SIZE;
+        FileChannel channel = null;
+        try {
+            Files.createDirectories(directory);
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            FileLock lock = channel.tryLock(); //released when the channel is closed
+            if (lock == null) {
+                channel.close();
+                System.err.println("chunk cache disabled: " + path + " is used by another game");
+                return disabled();
+            }
+            if (!hasValidHeader(channel, seed, fingerprint)) {
+                channel.truncate(0); //mapping re-extends the file with zeroes - all slots empty
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, FORMAT_VERSION);
+            buffer.putInt(8, fingerprint);
+            buffer.putInt(12, seed);
+            buffer.putInt(16, SLOT_SIZE);
+            buffer.putInt(20, NUM_OF_SLOTS);
+            return new ChunkCache(buffer, channel);
+        } catch (IOException | OverlappingFileLockException e) {
+            closeQuietly(channel);
+            System.err.println("chunk cache disabled: " + (e.getMessage() != null ? e.getMessage() :
+                    path + " is used by another game of this process"));
+            return disabled();
+        }
+    }
+
+    /**
+     * @return a cache that never holds anything
+     */
+    public static ChunkCache disabled() {
+        return new ChunkCache(null, null);
+    }
+
+    /**
+     * Releases the lock of the cache file, so another game of the seed may open it. The cache must not be
+     * used afterwards.
+     */
+    public void close() {
+        closeQuietly(channel);
+    }
+
+    /**
+     * Reads a chunk from the cache. A corrupt slot - a length that doesn't fit the slot, a negative count
+     * or a payload shorter than its counts - is treated as not cached, so the chunk is generated again.
+     *
+     * @param chunkIndex index of the chunk
+     * @return the cached descriptor, null if the chunk isn't cached
+     */
+    public ChunkDescriptor read(int chunkIndex) {
+        if (buffer == null) {
+            return null;
+        }
+        int slotOffset = slotOffset(chunkIndex);
+        int length = buffer.getInt(slotOffset + 4);
+        if (length == EMPTY_SLOT || buffer.getInt(slotOffset) != chunkIndex) {
+            return null;
+        }
+        try {
+            if (length < 0 || length > MAX_PAYLOAD_SIZE) {
+                throw new IllegalArgumentException("length " + length + " doesn't fit a slot");
+            }
+            return decode(buffer.slice(slotOffset + SLOT_HEADER_SIZE, length));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            System.err.println("chunk cache: corrupt slot of chunk " + chunkIndex + " (" + e +
+                    "), it is generated again");
+            return null;
+        }
+    }
+
+    /**
+     * Writes a chunk to the cache, replacing whatever chunk shared its slot. Chunks too big for a slot are
+     * not cached.
+     *
+     * @param chunkIndex index of the chunk
+     * @param chunk      descriptor of the chunk
+     */
+    public void write(int chunkIndex, ChunkDescriptor chunk) {
+        if (buffer == null) {
+            return;
+        }
+        int slotOffset = slotOffset(chunkIndex);
+        buffer.putInt(slotOffset + 4, EMPTY_SLOT); //invalidate while the payload is rewritten
+        ByteBuffer payload = buffer.slice(slotOffset + SLOT_HEADER_SIZE, MAX_PAYLOAD_SIZE);
+        try {
+            encode(chunk, payload);
+        } catch (BufferOverflowException e) {
+            return;
+        }
+        buffer.putInt(slotOffset, chunkIndex);
+        buffer.putInt(slotOffset + 4, payload.position()); //a non empty length commits the slot
+    }
+
+    //================ private methods ================
+
+    /*
+     * closes the channel of the cache file if there is one, the mapping stays readable until collected
+     */
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("chunk cache not closed: " + e.getMessage());
+        }
+    }
+
+    /*
+     * @return true if the file was written with this format, seed and generator
+     */
+    private static boolean hasValidHeader(FileChannel channel, int seed, int fingerprint) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (channel.read(header, 0) < HEADER_SIZE) {
+            return false;
+        }
+        return header.getInt(0) == MAGIC && header.getInt(4) == FORMAT_VERSION &&
+                header.getInt(8) == fingerprint && header.getInt(12) == seed &&
+                header.getInt(16) == SLOT_SIZE && header.getInt(20) == NUM_OF_SLOTS;
+    }
+
+    /*
+     * @return offset of the slot of the given chunk
+     */
+    private static int slotOffset(int chunkIndex) {
+        return HEADER_SIZE + Math.floorMod(chunkIndex, NUM_OF_SLOTS) * SLOT_SIZE;
+    }
+
+    /*
+     * writes the chunk to the buffer, counts are shorts and everything else is an int
+     */
+    private static void encode(ChunkDescriptor chunk, ByteBuffer out) {
+        out.putInt(chunk.getMinX()).putInt(chunk.getMaxX());
+        out.putShort((short) chunk.getColumns().length);
+        for (ColumnDescriptor column : chunk.getColumns()) {
+            out.putInt(column.getX()).putInt(column.getTopY());
+            putColors(column.getBlockColors(), out);
+        }
+        out.putShort((short) chunk.getTrees().length);
+        for (TreeDescriptor tree : chunk.getTrees()) {
+            out.putInt(tree.getX()).putInt(tree.getFloorY()).putInt(tree.getTopY());
+            putColors(tree.getTrunkColors(), out);
+            out.putShort((short) tree.getNumOfLeaves());
+            for (int leaf = 0; leaf < tree.getNumOfLeaves(); leaf++) {
+                out.putInt((int) tree.getLeafX(leaf)).putInt((int) tree.getLeafY(leaf));
+                out.putInt(tree.getLeafColor(leaf)).putInt(tree.getLeafSeed(leaf));
+            }
+        }
+    }
+
+    /*
+     * reads a chunk written by encode, throws BufferUnderflowException or IllegalArgumentException if the
+     * payload is corrupt
+     */
+    private static ChunkDescriptor decode(ByteBuffer in) {
+        int minX = in.getInt();
+        int maxX = in.getInt();
+        ColumnDescriptor[] columns = new ColumnDescriptor[getCount(in)];
+        for (int column = 0; column < columns.length; column++) {
+            int x = in.getInt();
+            int topY = in.getInt();
+            columns[column] = new ColumnDescriptor(x, topY, getColors(in));
+        }
+        TreeDescriptor[] trees = new TreeDescriptor[getCount(in)];
+        for (int tree = 0; tree < trees.length; tree++) {
+            int x = in.getInt();
+            int floorY = in.getInt();
+            int topY = in.getInt();
+            trees[tree] = new TreeDescriptor(x, floorY, topY, getColors(in));
+            int numOfLeaves = getCount(in);
+            for (int leaf = 0; leaf < numOfLeaves; leaf++) {
+                trees[tree].addLeaf(in.getInt(), in.getInt(), in.getInt(), in.getInt());
+            }
+        }
+        return new ChunkDescriptor(minX, maxX, columns, trees);
+    }
+
+    /*
+     * writes a length prefixed color array
+     */
+    private static void putColors(int[] colors, ByteBuffer out) {
+        out.putShort((short) colors.length);
+        for (int color : colors) {
+            out.putInt(color);
+        }
+    }
+
+    /*
+     * reads a length prefixed color array
+     */
+    private static int[] getColors(ByteBuffer in) {
+        int[] colors = new int[getCount(in)];
+        for (int color = 0; color < colors.length; color++) {
+            colors[color] = in.getInt();
+        }
+        return colors;
+    }
+
+    /*
+     * reads a count written as a short, throws IllegalArgumentException if it is negative
+     */
+    private static int getCount(ByteBuffer in) {
+        int count = in.getShort();
+        if (count < 0) {
+            throw new IllegalArgumentException("negative count " + count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,63 @@
+package pepse.world.chunks;
+
+/**
+ * Description of everything that lives in a slice of the world - its terrain columns and its trees.
+ *
+ * @author Tamuz Gitler
+ */
+public class ChunkDescriptor {
+
+    //================ fields =========================
+
+    private final int minX;
+    private final int maxX;
+    private final ColumnDescriptor[] columns;
+    private final TreeDescriptor[] trees;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param minX    lower bound of the slice (inclusive).
+     * @param maxX    upper bound of the slice (exclusive).
+     * @param columns terrain columns of the slice, left to right.
+     * @param trees   trees planted in the slice, left to right.
+     */
+    public ChunkDescriptor(int minX, int maxX, ColumnDescriptor[] columns, TreeDescriptor[] trees) {
+        this.minX = minX;
+        this.maxX = maxX;
+        this.columns = columns;
+        this.trees = trees;
+    }
+
+    //================ public methods =================
+
+    /**
+     * @return lower bound of the slice
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * @return upper bound of the slice
+     */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * @return terrain columns of the slice
+     */
+    public ColumnDescriptor[] getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return trees planted in the slice
+     */
+    public TreeDescriptor[] getTrees() {
+        return trees;
+    }
+}
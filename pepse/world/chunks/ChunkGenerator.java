@@ -0,0 +1,143 @@
+package pepse.world.chunks;
+
+import pepse.world.Block;
+import pepse.world.Terrain;
+import pepse.world.trees.Tree;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Describes and instantiates chunks - fixed width slices of the world holding terrain columns and trees.
+ * Describing is side effect free and may run on any thread, instantiating must run on the game thread.
+ *
+ * @author Tamuz Gitler
+ */
+public class ChunkGenerator {
+
+    //================ public constants ===============
+
+    public static final int CHUNK_COLUMNS = 10;
+    public static final int CHUNK_WIDTH = (int) (CHUNK_COLUMNS * Block.SIZE);
+
+    //================ fields =========================
+
+    private final Terrain terrain;
+    private final Tree tree;
+    private final ChunkCache chunkCache;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param terrain    used for describing and creating terrain columns
+     * @param tree       used for describing and creating trees
+     * @param chunkCache described chunks are read from and written to this cache
+     */
+    public ChunkGenerator(Terrain terrain, Tree tree, ChunkCache chunkCache) {
+        this.terrain = terrain;
+        this.tree = tree;
+        this.chunkCache = chunkCache;
+    }
+
+    //================ public methods =================
+
+    /**
+     * Fingerprint of every constant the generated chunks depend on.
+     *
+     * @param terrain used for describing terrain columns
+     * @param tree    used for describing trees
+     * @return fingerprint of the chunk generator
+     */
+    public static int generatorFingerprint(Terrain terrain, Tree tree) {
+        return Objects.hash(terrain.generatorFingerprint(), tree.generatorFingerprint(), CHUNK_WIDTH);
+    }
+
+    /**
+     * Describes a whole chunk, reading it from the chunk cache when it was described before.
+     * Safe to call from several threads at once.
+     *
+     * @param chunkIndex index of the chunk, it covers [index * CHUNK_WIDTH, (index + 1) * CHUNK_WIDTH)
+     * @return descriptor of the chunk
+     */
+    public ChunkDescriptor describeChunk(int chunkIndex) {
+        ChunkDescriptor cached = chunkCache.read(chunkIndex);
+        if (cached != null) {
+            return cached;
+        }
+        int minX = chunkIndex * CHUNK_WIDTH;
+        ChunkDescriptor descriptor = describe(minX, minX + CHUNK_WIDTH);
+        chunkCache.write(chunkIndex, descriptor);
+        return descriptor;
+    }
+
+    /**
+     * Describes everything that lives in the given range. Safe to call from several threads at once.
+     *
+     * @param minX lower bound of the range (inclusive)
+     * @param maxX upper bound of the range (exclusive)
+     * @return descriptor of the range
+     */
+    public ChunkDescriptor describe(int minX, int maxX) {
+        ColumnDescriptor[] columns = terrain.describeInRange(minX, maxX);
+        List<TreeDescriptor> trees = tree.describeInRange(minX, maxX);
+        return new ChunkDescriptor(minX, maxX, columns, trees.toArray(new TreeDescriptor[0]));
+    }
+
+    /**
+     * Creates the game objects of a described chunk, must be called from the game thread.
+     *
+     * @param descriptor descriptor of the chunk to create
+     * @param chunk      the resident chunk the created objects belong to
+     */
+    public void instantiate(ChunkDescriptor descriptor, Chunk chunk) {
+        for (ColumnDescriptor column : descriptor.getColumns()) {
+            createColumn(column, chunk);
+        }
+        for (TreeDescriptor treeDescriptor : descriptor.getTrees()) {
+            createTree(treeDescriptor, chunk);
+        }
+    }
+
+    /**
+     * Creates the blocks of a described terrain column, must be called from the game thread.
+     *
+     * @param column descriptor of the column to create
+     * @param chunk  the resident chunk the created objects belong to
+     */
+    public void createColumn(ColumnDescriptor column, Chunk chunk) {
+        terrain.createColumn(column, chunk);
+        chunk.setColumnCreated(column.getX());
+    }
+
+    /**
+     * Creates a group of neighbouring terrain columns as merged blocks, must be called from the game thread.
+     * Groups next to player edits are created at full detail instead.
+     *
+     * @param columns       described columns of the chunk
+     * @param first         index of the first column of the group
+     * @param levelOfDetail number of columns (and rows) merged into a block
+     * @param chunk         the resident chunk the created objects belong to
+     */
+    public void createMergedColumns(ColumnDescriptor[] columns, int first, int levelOfDetail, Chunk chunk) {
+        int last = Math.min(first + levelOfDetail, columns.length); //exclusive
+        if (terrain.createMergedColumns(columns, first, levelOfDetail, chunk)) {
+            chunk.setColumnsBuilt(columns[first].getX(), (int) (columns[last - 1].getX() + Block.SIZE));
+            return;
+        }
+        for (int column = first; column < last; column++) {
+            createColumn(columns[column], chunk);
+        }
+    }
+
+    /**
+     * Creates the trunk and leaves of a described tree, must be called from the game thread.
+     *
+     * @param treeDescriptor descriptor of the tree to create
+     * @param chunk          the resident chunk the created objects belong to
+     */
+    public void createTree(TreeDescriptor treeDescriptor, Chunk chunk) {
+        tree.createTree(treeDescriptor, chunk);
+    }
+}
@@ -0,0 +1,376 @@
+package pepse.world.chunks;
+
+import danogl.collisions.GameObjectCollection;
+import pepse.world.Block;
+import pepse.world.RenderCuller;
+import pepse.world.WorldQuery;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Keeps the chunks of a render range resident. Generation and eviction are split into small tasks that
+ * are drained every frame against a time budget, so crossing a render bound never generates a whole strip
+ * in a single frame.
+ *
+ * @author Tamuz Gitler
+ */
+public class ChunkStreamer {
+
+    //================ public constants ===============
+
+    /**
+     * A budget that runs all the pending streaming work every frame, so the streamed world doesn't depend on
+     * the speed of the machine - for headless games that must play the same every time
+     */
+    public static final float UNLIMITED_BUDGET = Float.POSITIVE_INFINITY;
+
+    //================ private constants ==============
+
+    private static final int URGENT_MARGIN = ChunkGenerator.CHUNK_WIDTH;
+    private static final int OBJECTS_PER_EVICTION_STEP = 64;
+    private static final int EVICTION_MARGIN_CHUNKS = 1; //chunks kept past the range, avoids thrashing
+    private static final long NANOS_IN_MILLI = 1_000_000L;
+    private static final int HALF_DETAIL = 2; //2x2 blocks merged
+    private static final int QUARTER_DETAIL = 4; //4x4 blocks merged
+
+    //================ fields =========================
+
+    private final ChunkGenerator chunkGenerator;
+    private final GameObjectCollection gameObjects;
+    private final WorldQuery worldQuery;
+    private final GenerationQueue queue = new GenerationQueue(URGENT_MARGIN);
+    private final Map<Integer, Chunk> chunks = new HashMap<>();
+    private final long budgetNanos;
+    private final boolean isBudgeted;
+    private final boolean collisionWindow;
+    private final RenderCuller renderCuller;
+
+    private int minChunk;
+    private int maxChunk;
+    private int levelOfDetailDistance; //0 - always full detail
+    private float visibleMinX = Float.NEGATIVE_INFINITY;
+    private float visibleMaxX = Float.POSITIVE_INFINITY;
+    private boolean rangeChanged;
+    private boolean isIdle;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param chunkGenerator  describes and instantiates the chunks
+     * @param gameObjects     The collection of all participating game objects.
+     * @param worldQuery      keeps the block grids of the resident chunks
+     * @param budgetMillis    time each frame may spend on streaming work, or UNLIMITED_BUDGET
+     * @param collisionWindow if true, terrain columns are only collidable once a CollisionWindow asks for it
+     * @param renderCuller    culler of the game, objects of the chunks are culled with it
+     */
+    public ChunkStreamer(ChunkGenerator chunkGenerator, GameObjectCollection gameObjects,
+                         WorldQuery worldQuery, float budgetMillis, boolean collisionWindow,
+                         RenderCuller renderCuller) {
+        this.chunkGenerator = chunkGenerator;
+        this.gameObjects = gameObjects;
+        this.worldQuery = worldQuery;
+        this.budgetNanos = (long) (budgetMillis * NANOS_IN_MILLI);
+        this.isBudgeted = budgetMillis != UNLIMITED_BUDGET;
+        this.collisionWindow = collisionWindow;
+        this.renderCuller = renderCuller;
+    }
+
+    //================ public methods =================
+
+    /**
+     * Generates every chunk of the given range right away, describing them with the given pregenerator.
+     *
+     * @param pregenerator describes the chunks, possibly in parallel
+     * @param minX         lower bound of the range (inclusive)
+     * @param maxX         upper bound of the range (exclusive)
+     */
+    public void pregenerate(WorldPregenerator pregenerator, int minX, int maxX) {
+        pregenerate(pregenerator, minX, maxX, false);
+    }
+
+    /**
+     * Generates the terrain columns of the given range right away and queues its trees, which are streamed
+     * in by the following updates like any other streaming work.
+     *
+     * @param pregenerator describes the chunks, possibly in parallel
+     * @param minX         lower bound of the range (inclusive)
+     * @param maxX         upper bound of the range (exclusive)
+     */
+    public void pregenerateTerrain(WorldPregenerator pregenerator, int minX, int maxX) {
+        pregenerate(pregenerator, minX, maxX, true);
+    }
+
+    /**
+     * Sets the range that should be resident - queues generation of the chunks entering it and eviction of
+     * the chunks leaving it by more than a chunk. Does nothing if the chunks of the range didn't change, so
+     * it may be called every frame.
+     *
+     * @param minX lower bound of the range (inclusive)
+     * @param maxX upper bound of the range (exclusive)
+     */
+    public void requestRange(int minX, int maxX) {
+        int newMinChunk = chunkIndexAt(minX);
+        int newMaxChunk = chunkIndexAt(maxX - 1) + 1;
+        if (newMinChunk == minChunk && newMaxChunk == maxChunk) {
+            return;
+        }
+        this.minChunk = newMinChunk;
+        this.maxChunk = newMaxChunk;
+        this.rangeChanged = true;
+
+        Iterator<Chunk> iterator = chunks.values().iterator();
+        while (iterator.hasNext()) {
+            Chunk chunk = iterator.next();
+            if (chunk.getIndex() < minChunk - EVICTION_MARGIN_CHUNKS ||
+                    chunk.getIndex() >= maxChunk + EVICTION_MARGIN_CHUNKS) {
+                iterator.remove();
+                queueEviction(chunk);
+            }
+        }
+        for (int index = minChunk; index < maxChunk; index++) {
+            if (!chunks.containsKey(index)) {
+                Chunk chunk = new Chunk(index, gameObjects, !collisionWindow, renderCuller);
+                chunks.put(index, chunk);
+                queueGeneration(chunk);
+            }
+        }
+    }
+
+    /**
+     * Runs pending streaming work for at most the frame budget, chunks near the visible range first - all of
+     * it when the budget is unlimited.
+     *
+     * @param visibleMinX lower bound of the visible range
+     * @param visibleMaxX upper bound of the visible range
+     */
+    public void update(float visibleMinX, float visibleMaxX) {
+        boolean visibleRangeMoved = visibleMinX != this.visibleMinX || visibleMaxX != this.visibleMaxX;
+        this.visibleMinX = visibleMinX;
+        this.visibleMaxX = visibleMaxX;
+        if (levelOfDetailDistance > 0 && (visibleRangeMoved || rangeChanged)) {
+            refineApproachingChunks(); //chunks only come closer when a range moves
+        }
+        boolean hadWork = rangeChanged || queue.size() > 0;
+        if (isBudgeted) {
+            queue.drain(visibleMinX, visibleMaxX, budgetNanos);
+        } else {
+            queue.drainAll();
+        }
+        this.isIdle = !hadWork;
+        this.rangeChanged = false;
+    }
+
+    /**
+     * @return true if the last update had no streaming work - the frame didn't cross a streaming boundary
+     */
+    public boolean isIdle() {
+        return isIdle;
+    }
+
+    /**
+     * Makes chunks streamed in far from the visible range use merged terrain blocks - 2x2 beyond the given
+     * distance, 4x4 beyond another chunk width. A chunk is refined to full detail once it comes closer than
+     * the distance.
+     *
+     * @param distance distance from the visible range, 0 keeps every chunk at full detail
+     */
+    public void setLevelOfDetailDistance(int distance) {
+        this.levelOfDetailDistance = distance;
+    }
+
+    /**
+     * Recreates the blocks of a resident column, used after the player edited it. Columns that were not
+     * created yet pick up the edit when their task runs.
+     *
+     * @param column column to rebuild (x / Block.SIZE)
+     */
+    public void rebuildColumn(int column) {
+        int x = (int) (column * Block.SIZE);
+        Chunk chunk = chunks.get(chunkIndexAt(x));
+        if (chunk == null || !chunk.isColumnCreated(x)) {
+            return;
+        }
+        int columnInChunk = (int) ((x - chunk.getMinX()) / Block.SIZE);
+        chunk.removeTerrainColumn(x);
+        chunkGenerator.createColumn(chunk.getDescriptor().getColumns()[columnInChunk], chunk);
+    }
+
+    /**
+     * Moves the collidable blocks of a column in or out of the collidable layer. Columns of chunks that are
+     * not resident are ignored.
+     *
+     * @param column     column to update (x / Block.SIZE)
+     * @param collidable true if the column is inside the collision window
+     */
+    public void setColumnCollidable(int column, boolean collidable) {
+        int x = (int) (column * Block.SIZE);
+        Chunk chunk = chunks.get(chunkIndexAt(x));
+        if (chunk != null) {
+            chunk.setColumnCollidable(x, collidable);
+        }
+    }
+
+    /**
+     * @param x coordinate in the world
+     * @return index of the chunk holding x
+     */
+    public static int chunkIndexAt(float x) {
+        return (int) Math.floor(x / ChunkGenerator.CHUNK_WIDTH);
+    }
+
+    //================ private methods ================
+
+    /*
+     * generates the chunks of the range right away, except for their trees when streamTrees is set
+     */
+    private void pregenerate(WorldPregenerator pregenerator, int minX, int maxX, boolean streamTrees) {
+        this.minChunk = chunkIndexAt(minX);
+        this.maxChunk = chunkIndexAt(maxX - 1) + 1;
+        ChunkDescriptor[] descriptors = pregenerator.describe(minChunk, maxChunk);
+        for (ChunkDescriptor descriptor : descriptors) {
+            Chunk chunk = new Chunk(chunkIndexAt(descriptor.getMinX()), gameObjects, !collisionWindow,
+                    renderCuller);
+            chunk.setDescriptor(descriptor);
+            worldQuery.addChunk(chunk.getIndex(), descriptor);
+            if (streamTrees) {
+                for (ColumnDescriptor column : descriptor.getColumns()) {
+                    chunkGenerator.createColumn(column, chunk);
+                }
+                queueTrees(chunk, descriptor);
+            } else {
+                chunkGenerator.instantiate(descriptor, chunk);
+            }
+            chunks.put(chunk.getIndex(), chunk);
+        }
+    }
+
+    /*
+     * queues describing the chunk, which in turn queues creating its columns and trees
+     */
+    private void queueGeneration(Chunk chunk) {
+        queue.enqueue(chunk.getMinX(), chunk.getMaxX(), () -> {
+            if (chunk.isDiscarded()) {
+                return;
+            }
+            ChunkDescriptor descriptor = chunkGenerator.describeChunk(chunk.getIndex());
+            chunk.setDescriptor(descriptor);
+            worldQuery.addChunk(chunk.getIndex(), descriptor);
+            chunk.setLevelOfDetail(levelOfDetailOf(chunk));
+            queueColumns(chunk, descriptor);
+            queueTrees(chunk, descriptor);
+        });
+    }
+
+    /*
+     * queues creating every column of a described chunk as a separate task, or every group of merged
+     * columns when the chunk is far away. Tasks are skipped if the chunk detail changed since.
+     */
+    private void queueColumns(Chunk chunk, ChunkDescriptor descriptor) {
+        int levelOfDetail = chunk.getLevelOfDetail();
+        ColumnDescriptor[] columns = descriptor.getColumns();
+        for (int first = 0; first < columns.length; first += levelOfDetail) {
+            ColumnDescriptor column = columns[first];
+            int firstColumn = first;
+            queue.enqueue(column.getX(), (int) (column.getX() + levelOfDetail * Block.SIZE), () -> {
+                if (chunk.isDiscarded() || chunk.getLevelOfDetail() != levelOfDetail) {
+                    return;
+                }
+                if (levelOfDetail == Chunk.FULL_DETAIL) {
+                    chunkGenerator.createColumn(column, chunk);
+                    return;
+                }
+                chunkGenerator.createMergedColumns(columns, firstColumn, levelOfDetail, chunk);
+            });
+        }
+    }
+
+    /*
+     * queues creating every tree of a described chunk as a separate task
+     */
+    private void queueTrees(Chunk chunk, ChunkDescriptor descriptor) {
+        for (TreeDescriptor tree : descriptor.getTrees()) {
+            queue.enqueue(tree.getX(), (int) (tree.getX() + Block.SIZE), () -> {
+                if (!chunk.isDiscarded()) {
+                    chunkGenerator.createTree(tree, chunk);
+                }
+            });
+        }
+    }
+
+    /*
+     * @return level of detail for a chunk about to be created, by its distance from the visible range
+     */
+    private int levelOfDetailOf(Chunk chunk) {
+        float distance = distanceFromVisibleRange(chunk);
+        if (levelOfDetailDistance <= 0 || distance < levelOfDetailDistance) {
+            return Chunk.FULL_DETAIL;
+        }
+        return distance < levelOfDetailDistance + ChunkGenerator.CHUNK_WIDTH ? HALF_DETAIL : QUARTER_DETAIL;
+    }
+
+    /*
+     * @return distance between the chunk and the visible range, 0 if they overlap
+     */
+    private float distanceFromVisibleRange(Chunk chunk) {
+        return Math.max(0, Math.max(chunk.getMinX() - visibleMaxX, visibleMinX - chunk.getMaxX()));
+    }
+
+    /*
+     * rebuilds at full detail the merged chunks that came closer than the level of detail distance
+     */
+    private void refineApproachingChunks() {
+        for (Chunk chunk : chunks.values()) {
+            if (chunk.getLevelOfDetail() == Chunk.FULL_DETAIL || chunk.getDescriptor() == null ||
+                    distanceFromVisibleRange(chunk) >= levelOfDetailDistance) {
+                continue;
+            }
+            int mergedDetail = chunk.getLevelOfDetail();
+            chunk.setLevelOfDetail(Chunk.FULL_DETAIL); //pending merged tasks are skipped from now on
+            queueRefinement(chunk, chunk.getDescriptor(), mergedDetail);
+        }
+    }
+
+    /*
+     * queues replacing every group of merged columns of a chunk by its full detail columns as a separate
+     * task. A merged block is removed by the task that creates its columns, so the terrain of the chunk is
+     * never missing while the queue catches up.
+     */
+    private void queueRefinement(Chunk chunk, ChunkDescriptor descriptor, int mergedDetail) {
+        ColumnDescriptor[] columns = descriptor.getColumns();
+        for (int first = 0; first < columns.length; first += mergedDetail) {
+            int groupMinX = columns[first].getX();
+            int groupMaxX = (int) (groupMinX + mergedDetail * Block.SIZE);
+            int lastColumn = Math.min(first + mergedDetail, columns.length); //exclusive
+            int firstColumn = first;
+            queue.enqueue(groupMinX, groupMaxX, () -> {
+                if (chunk.isDiscarded() || chunk.getLevelOfDetail() != Chunk.FULL_DETAIL) {
+                    return;
+                }
+                chunk.removeTerrainColumns(groupMinX, groupMaxX);
+                for (int column = firstColumn; column < lastColumn; column++) {
+                    chunkGenerator.createColumn(columns[column], chunk);
+                }
+            });
+        }
+    }
+
+    /*
+     * discards the chunk and queues removing its objects in small steps
+     */
+    private void queueEviction(Chunk chunk) {
+        chunk.discard();
+        worldQuery.removeChunk(chunk.getIndex());
+        queue.enqueue(chunk.getMinX(), chunk.getMaxX(), new Runnable() {
+            @Override
+            public void run() {
+                if (!chunk.evict(OBJECTS_PER_EVICTION_STEP)) {
+                    queue.enqueue(chunk.getMinX(), chunk.getMaxX(), this);
+                }
+            }
+        });
+    }
+}
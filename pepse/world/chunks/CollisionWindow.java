@@ -0,0 +1,141 @@
+package pepse.world.chunks;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import pepse.util.LongIntHashMap;
+import pepse.world.Block;
+
+import java.util.Arrays;
+
+/**
+ * Keeps only the terrain columns near dynamic objects in the collidable layer, so the engine broadphase
+ * sees a handful of columns instead of the whole render range.
+ * Every frame the columns under the tracked objects (plus a margin) are stamped, newly stamped columns are
+ * promoted and columns that weren't stamped are demoted - only columns that changed are touched.
+ *
+ * @author Tamuz Gitler
+ */
+public class CollisionWindow {
+
+    //================ private constants ==============
+
+    private static final int MARGIN_COLUMNS = 2;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NOT_STAMPED = -1;
+
+    //================ fields =========================
+
+    private final ChunkStreamer chunkStreamer;
+    private final GameObjectCollection gameObjects;
+    private final int[] trackedLayers;
+    private final LongIntHashMap columnStamps = new LongIntHashMap();
+    private int[] activeColumns = new int[INITIAL_CAPACITY];
+    private int numOfActiveColumns;
+    private int stamp;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param chunkStreamer moves the blocks of the resident columns between layers
+     * @param gameObjects   The collection of all participating game objects.
+     * @param trackedLayers layers of the dynamic objects that collide with the terrain
+     */
+    public CollisionWindow(ChunkStreamer chunkStreamer, GameObjectCollection gameObjects,
+                           int... trackedLayers) {
+        this.chunkStreamer = chunkStreamer;
+        this.gameObjects = gameObjects;
+        this.trackedLayers = trackedLayers;
+    }
+
+    //================ public methods =================
+
+    /**
+     * Should be called once per frame - updates the window to the current positions of the tracked objects.
+     */
+    public void update() {
+        updateWindow(null);
+    }
+
+    /**
+     * Should be called once per frame instead of update() when a dynamic object outside the tracked layers
+     * collides with the terrain - updates the window to the current positions of the tracked objects and of
+     * the extra object.
+     *
+     * @param extraObject dynamic object outside the tracked layers, e.g. the avatar
+     */
+    public void update(GameObject extraObject) {
+        updateWindow(extraObject);
+    }
+
+    /**
+     * @return number of columns currently in the collidable layer
+     */
+    public int size() {
+        return numOfActiveColumns;
+    }
+
+    //================ private methods ================
+
+    /*
+     * stamps the columns under the tracked objects and the extra object (if not null), then demotes the
+     * columns that weren't stamped - without varargs, so a step doesn't allocate an array
+     */
+    private void updateWindow(GameObject extraObject) {
+        stamp++;
+        if (extraObject != null) {
+            cover(extraObject);
+        }
+        for (int layer : trackedLayers) {
+            for (GameObject gameObject : gameObjects.objectsInLayer(layer)) {
+                cover(gameObject);
+            }
+        }
+        demoteStaleColumns();
+    }
+
+    /*
+     * stamps and promotes the columns under the object
+     */
+    private void cover(GameObject gameObject) {
+        float left = gameObject.getTopLeftCorner().x();
+        int firstColumn = (int) Math.floor(left / Block.SIZE) - MARGIN_COLUMNS;
+        int lastColumn = (int) Math.floor((left + gameObject.getDimensions().x()) / Block.SIZE) +
+                MARGIN_COLUMNS;
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            if (columnStamps.get(column, NOT_STAMPED) == NOT_STAMPED) {
+                addActiveColumn(column);
+            }
+            columnStamps.put(column, stamp);
+            chunkStreamer.setColumnCollidable(column, true); //no-op unless the column was just streamed in
+        }
+    }
+
+    /*
+     * demotes every active column that wasn't stamped this frame
+     */
+    private void demoteStaleColumns() {
+        int kept = 0;
+        for (int active = 0; active < numOfActiveColumns; active++) {
+            int column = activeColumns[active];
+            if (columnStamps.get(column, NOT_STAMPED) != stamp) {
+                columnStamps.remove(column);
+                chunkStreamer.setColumnCollidable(column, false);
+                continue;
+            }
+            activeColumns[kept++] = column;
+        }
+        numOfActiveColumns = kept;
+    }
+
+    /*
+     * appends a column to the active columns list
+     */
+    private void addActiveColumn(int column) {
+        if (numOfActiveColumns == activeColumns.length) {
+            activeColumns = Arrays.copyOf(activeColumns, activeColumns.length * 2);
+        }
+        activeColumns[numOfActiveColumns++] = column;
+    }
+}
@@ -0,0 +1,54 @@
+package pepse.world.chunks;
+
+/**
+ * Immutable description of a single terrain column - where its surface is and the colors of its blocks.
+ * Descriptors are pure data so they can be computed off the game thread and instantiated later.
+ *
+ * @author Tamuz Gitler
+ */
+public class ColumnDescriptor {
+
+    //================ fields =========================
+
+    private final int x;
+    private final int topY;
+    private final int[] blockColors;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param x           x coordinate of the column (multiple of Block.SIZE).
+     * @param topY        y coordinate of the top block of the column.
+     * @param blockColors rgb color of every block in the column, top block first.
+     */
+    public ColumnDescriptor(int x, int topY, int[] blockColors) {
+        this.x = x;
+        this.topY = topY;
+        this.blockColors = blockColors;
+    }
+
+    //================ public methods =================
+
+    /**
+     * @return x coordinate of the column
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * @return y coordinate of the top block of the column
+     */
+    public int getTopY() {
+        return topY;
+    }
+
+    /**
+     * @return rgb color of every block in the column, top block first
+     */
+    public int[] getBlockColors() {
+        return blockColors;
+    }
+}
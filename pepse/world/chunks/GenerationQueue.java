@@ -0,0 +1,140 @@
+package pepse.world.chunks;
+
+import java.util.ArrayDeque;
+
+/**
+ * A queue of small world streaming tasks drained against a per-frame time budget.
+ * Tasks close to the camera are urgent and run before speculative prefetch work, tasks whose range is
+ * already visible run even when the budget is exhausted so the player never sees a hole in the world.
+ *
+ * @author Tamuz Gitler
+ */
+public class GenerationQueue {
+
+    //================ fields =========================
+
+    private final int urgentMargin;
+    private final ArrayDeque<Task> urgent = new ArrayDeque<>();
+    private final ArrayDeque<Task> prefetch = new ArrayDeque<>();
+
+    private float visibleMinX;
+    private float visibleMaxX;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param urgentMargin tasks within this distance of the visible range are urgent
+     */
+    public GenerationQueue(int urgentMargin) {
+        this.urgentMargin = urgentMargin;
+    }
+
+    //================ public methods =================
+
+    /**
+     * adds a task to the queue
+     *
+     * @param minX lower bound of the world range the task works on
+     * @param maxX upper bound of the world range the task works on
+     * @param work the task itself
+     */
+    public void enqueue(int minX, int maxX, Runnable work) {
+        Task task = new Task(minX, maxX, work);
+        if (isUrgent(task)) {
+            urgent.addLast(task);
+            return;
+        }
+        prefetch.addLast(task);
+    }
+
+    /**
+     * runs queued tasks, urgent first, until the budget is spent. Visible tasks always run.
+     *
+     * @param visibleMinX lower bound of the visible range
+     * @param visibleMaxX upper bound of the visible range
+     * @param budgetNanos time budget for this call
+     */
+    public void drain(float visibleMinX, float visibleMaxX, long budgetNanos) {
+        this.visibleMinX = visibleMinX;
+        this.visibleMaxX = visibleMaxX;
+        promoteUrgentTasks();
+        long deadline = System.nanoTime() + budgetNanos;
+        while (!urgent.isEmpty()) {
+            if (System.nanoTime() > deadline && !isVisible(urgent.peekFirst())) {
+                return;
+            }
+            urgent.pollFirst().work.run();
+        }
+        while (!prefetch.isEmpty() && System.nanoTime() <= deadline) {
+            prefetch.pollFirst().work.run();
+        }
+    }
+
+    /**
+     * runs every queued task regardless of the budget
+     */
+    public void drainAll() {
+        while (!urgent.isEmpty() || !prefetch.isEmpty()) {
+            Task task = urgent.isEmpty() ? prefetch.pollFirst() : urgent.pollFirst();
+            task.work.run();
+        }
+    }
+
+    /**
+     * @return number of tasks waiting in the queue
+     */
+    public int size() {
+        return urgent.size() + prefetch.size();
+    }
+
+    //================ private methods ================
+
+    /*
+     * moves prefetch tasks that got close to the camera to the urgent queue. Rotates the queue once instead
+     * of iterating it, an iterator would be allocated every frame
+     */
+    private void promoteUrgentTasks() {
+        for (int remaining = prefetch.size(); remaining > 0; remaining--) {
+            Task task = prefetch.pollFirst();
+            if (isUrgent(task)) {
+                urgent.addLast(task);
+            } else {
+                prefetch.addLast(task);
+            }
+        }
+    }
+
+    /*
+     * @return true if the task is close to the visible range
+     */
+    private boolean isUrgent(Task task) {
+        return task.maxX > visibleMinX - urgentMargin && task.minX < visibleMaxX + urgentMargin;
+    }
+
+    /*
+     * @return true if the task range is visible
+     */
+    private boolean isVisible(Task task) {
+        return task.maxX > visibleMinX && task.minX < visibleMaxX;
+    }
+
+    //================ nested classes =================
+
+    /*
+     * a unit of streaming work and the world range it touches
+     */
+    private static class Task {
+
+        private final int minX;
+        private final int maxX;
+        private final Runnable work;
+
+        private Task(int minX, int maxX, Runnable work) {
+            this.minX = minX;
+            this.maxX = maxX;
+            this.work = work;
+        }
+    }
+}
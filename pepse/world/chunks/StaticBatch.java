@@ -0,0 +1,173 @@
+package pepse.world.chunks;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+import pepse.world.RenderCuller;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Draws the static terrain blocks of a chunk. The blocks are baked into a single image that is drawn as one
+ * sprite, and re-baked only after the blocks of the batch change. A batch is baked only once every column
+ * of its chunk exists, never after the chunk was discarded, and only while the chunk is inside the camera -
+ * streaming and evicting a chunk change its blocks once per task, and baking each of them would redraw the
+ * whole chunk every time. The sprite is culled as a whole when it is outside the camera. Blocks nothing
+ * collides with are registered in the game only through the batch, so the engine traverses one object per
+ * chunk for them. Collidable blocks are also registered in the collidable layer while their column is
+ * inside the collision window, but they don't draw themselves - every block is drawn once, by the batch.
+ *
+ * @author Tamuz Gitler
+ */
+public class StaticBatch extends GameObject {
+
+    //================ private constants ==============
+
+    private static final int INITIAL_CAPACITY = 128;
+    private static final float FULL_OPAQUENESS = 1;
+
+    //================ fields =========================
+
+    private final List<GameObject> blocks = new ArrayList<>(INITIAL_CAPACITY);
+    private final Chunk chunk;
+    private final RenderCuller renderCuller;
+    private boolean isDirty;
+    private int numOfBakes;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param chunk        chunk whose blocks the batch draws
+     * @param renderCuller culler of the game
+     */
+    public StaticBatch(Chunk chunk, RenderCuller renderCuller) {
+        super(new Vector2(chunk.getMinX(), 0), //resized to its blocks when baked
+                new Vector2(ChunkGenerator.CHUNK_WIDTH, 0), null);
+        this.chunk = chunk;
+        this.renderCuller = renderCuller;
+    }
+
+    //================ public methods =================
+
+    /**
+     * adds a static block to the batch
+     *
+     * @param block block to draw with the batch
+     */
+    public void add(GameObject block) {
+        blocks.add(block);
+        isDirty = true;
+    }
+
+    /**
+     * removes a block from the batch, searching from the most recently added one
+     *
+     * @param block block to remove
+     * @return true if the block was in the batch
+     */
+    public boolean remove(GameObject block) {
+        for (int i = blocks.size() - 1; i >= 0; i--) {
+            if (blocks.get(i) == block) {
+                blocks.remove(i);
+                isDirty = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of blocks in the batch
+     */
+    public int size() {
+        return blocks.size();
+    }
+
+    /**
+     * @return number of times the batch image was baked
+     */
+    public int getNumOfBakes() {
+        return numOfBakes;
+    }
+
+    /**
+     * Bakes the batch image if the blocks changed since it was last baked, once every column of the chunk
+     * exists and while the chunk is inside the camera. A discarded chunk is never baked again.
+     *
+     * @return true if the batch has a baked image to draw
+     */
+    public boolean prepareRender() {
+        if (isDirty && chunk.hasAllColumns() && !chunk.isDiscarded() &&
+                renderCuller.isRangeVisible(chunk.getMinX(), chunk.getMaxX())) {
+            bake();
+        }
+        return renderer().getRenderable() != null;
+    }
+
+    /**
+     * does nothing - the blocks of the batch never change
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+    }
+
+    /**
+     * renders the baked image of the batch, baking it first if the blocks changed since it was last baked
+     *
+     * @param g      The graphics context to render to.
+     * @param camera The camera to render through.
+     */
+    @Override
+    public void render(Graphics2D g, Camera camera) {
+        if (prepareRender() && renderCuller.shouldRender(this, PepseGameManager.TERRAIN_LAYER)) {
+            super.render(g, camera);
+        }
+    }
+
+    //================ private methods ================
+
+    /*
+     * rasterizes every block of the batch into one image covering their bounding box
+     */
+    private void bake() {
+        isDirty = false;
+        if (blocks.isEmpty()) {
+            renderer().setRenderable(null);
+            return;
+        }
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (GameObject block : blocks) {
+            Vector2 topLeftCorner = block.getTopLeftCorner();
+            Vector2 dimensions = block.getDimensions();
+            minX = Math.min(minX, topLeftCorner.x());
+            minY = Math.min(minY, topLeftCorner.y());
+            maxX = Math.max(maxX, topLeftCorner.x() + dimensions.x());
+            maxY = Math.max(maxY, topLeftCorner.y() + dimensions.y());
+        }
+        Vector2 origin = new Vector2(minX, minY);
+        Vector2 size = new Vector2(maxX - minX, maxY - minY);
+        BufferedImage image = new BufferedImage((int) Math.ceil(size.x()), (int) Math.ceil(size.y()),
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D imageGraphics = image.createGraphics();
+        for (GameObject block : blocks) {
+            block.renderer().getRenderable().render(imageGraphics,
+                    block.getTopLeftCorner().subtract(origin), block.getDimensions(), 0, false, false,
+                    FULL_OPAQUENESS);
+        }
+        imageGraphics.dispose();
+        renderer().setRenderable(new ImageRenderable(image));
+        setTopLeftCorner(origin);
+        setDimensions(size);
+        numOfBakes++;
+    }
+}
@@ -0,0 +1,139 @@
+package pepse.world.chunks;
+
+import java.util.Arrays;
+
+/**
+ * Description of a single tree - its trunk and its leaves - computed off the game thread and
+ * instantiated later.
+ *
+ * @author Tamuz Gitler
+ */
+public class TreeDescriptor {
+
+    //================ private constants ==============
+
+    private static final int INITIAL_LEAVES_CAPACITY = 64;
+    private static final int GROWTH_FACTOR = 2;
+
+    //================ fields =========================
+
+    private final int x;
+    private final int floorY;
+    private final int topY;
+    private final int[] trunkColors;
+
+    private float[] leafXs = new float[INITIAL_LEAVES_CAPACITY];
+    private float[] leafYs = new float[INITIAL_LEAVES_CAPACITY];
+    private int[] leafColors = new int[INITIAL_LEAVES_CAPACITY];
+    private int[] leafSeeds = new int[INITIAL_LEAVES_CAPACITY];
+    private int numOfLeaves;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param x           x coordinate of the trunk.
+     * @param floorY      y coordinate of the ground under the trunk.
+     * @param topY        y coordinate of the top of the trunk.
+     * @param trunkColors rgb color of every trunk block, bottom block first.
+     */
+    public TreeDescriptor(int x, int floorY, int topY, int[] trunkColors) {
+        this.x = x;
+        this.floorY = floorY;
+        this.topY = topY;
+        this.trunkColors = trunkColors;
+    }
+
+    //================ public methods =================
+
+    /**
+     * adds a leaf to the tree
+     *
+     * @param leafX x coordinate of the leaf top left corner
+     * @param leafY y coordinate of the leaf top left corner
+     * @param color rgb color of the leaf
+     * @param seed  seed of the leaf life cycle
+     */
+    public void addLeaf(float leafX, float leafY, int color, int seed) {
+        if (numOfLeaves == leafXs.length) {
+            int capacity = leafXs.length * GROWTH_FACTOR;
+            leafXs = Arrays.copyOf(leafXs, capacity);
+            leafYs = Arrays.copyOf(leafYs, capacity);
+            leafColors = Arrays.copyOf(leafColors, capacity);
+            leafSeeds = Arrays.copyOf(leafSeeds, capacity);
+        }
+        leafXs[numOfLeaves] = leafX;
+        leafYs[numOfLeaves] = leafY;
+        leafColors[numOfLeaves] = color;
+        leafSeeds[numOfLeaves] = seed;
+        numOfLeaves++;
+    }
+
+    /**
+     * @return x coordinate of the trunk
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * @return y coordinate of the ground under the trunk
+     */
+    public int getFloorY() {
+        return floorY;
+    }
+
+    /**
+     * @return y coordinate of the top of the trunk
+     */
+    public int getTopY() {
+        return topY;
+    }
+
+    /**
+     * @return rgb color of every trunk block, bottom block first
+     */
+    public int[] getTrunkColors() {
+        return trunkColors;
+    }
+
+    /**
+     * @return number of leaves of the tree
+     */
+    public int getNumOfLeaves() {
+        return numOfLeaves;
+    }
+
+    /**
+     * @param leaf index of the leaf
+     * @return x coordinate of the leaf top left corner
+     */
+    public float getLeafX(int leaf) {
+        return leafXs[leaf];
+    }
+
+    /**
+     * @param leaf index of the leaf
+     * @return y coordinate of the leaf top left corner
+     */
+    public float getLeafY(int leaf) {
+        return leafYs[leaf];
+    }
+
+    /**
+     * @param leaf index of the leaf
+     * @return rgb color of the leaf
+     */
+    public int getLeafColor(int leaf) {
+        return leafColors[leaf];
+    }
+
+    /**
+     * @param leaf index of the leaf
+     * @return seed of the leaf life cycle
+     */
+    public int getLeafSeed(int leaf) {
+        return leafSeeds[leaf];
+    }
+}
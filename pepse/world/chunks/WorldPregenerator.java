@@ -0,0 +1,97 @@
+package pepse.world.chunks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Pregenerates a range of the world by describing its chunks in parallel on a fork-join pool, so the
+ * caller can instantiate all of them in bulk on the game thread.
+ *
+ * @author Tamuz Gitler
+ */
+public class WorldPregenerator {
+
+    //================ private constants ==============
+
+    private static final int CHUNKS_PER_TASK = 1;
+
+    //================ fields =========================
+
+    private final ChunkGenerator chunkGenerator;
+    private final ForkJoinPool pool;
+    private final boolean parallel;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param chunkGenerator describes and instantiates the chunks
+     * @param pool           the pool the chunks are described on
+     * @param parallel       if false the chunks are described one by one on the calling thread
+     */
+    public WorldPregenerator(ChunkGenerator chunkGenerator, ForkJoinPool pool, boolean parallel) {
+        this.chunkGenerator = chunkGenerator;
+        this.pool = pool;
+        this.parallel = parallel;
+    }
+
+    //================ public methods =================
+
+    /**
+     * Describes the chunks [fromChunk, toChunk), in parallel unless the pregenerator is sequential.
+     * The game objects are created afterwards by the caller, on the game thread.
+     *
+     * @param fromChunk index of the first chunk (inclusive)
+     * @param toChunk   index of the last chunk (exclusive)
+     * @return descriptors of the chunks, left to right
+     */
+    public ChunkDescriptor[] describe(int fromChunk, int toChunk) {
+        ChunkDescriptor[] chunks = new ChunkDescriptor[Math.max(toChunk - fromChunk, 0)];
+        DescribeTask task = new DescribeTask(chunks, fromChunk, 0, chunks.length);
+        if (parallel) {
+            pool.invoke(task);
+        } else {
+            task.describeSequentially();
+        }
+        return chunks;
+    }
+
+    //================ nested classes =================
+
+    /*
+     * describes the chunks [from, to) of the result array by splitting the range in halves
+     */
+    @SuppressWarnings("serial") //tasks are never serialized
+    private class DescribeTask extends RecursiveAction {
+
+        private final ChunkDescriptor[] chunks;
+        private final int firstChunkIndex;
+        private final int from;
+        private final int to;
+
+        private DescribeTask(ChunkDescriptor[] chunks, int firstChunkIndex, int from, int to) {
+            this.chunks = chunks;
+            this.firstChunkIndex = firstChunkIndex;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNKS_PER_TASK) {
+                describeSequentially();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new DescribeTask(chunks, firstChunkIndex, from, middle),
+                    new DescribeTask(chunks, firstChunkIndex, middle, to));
+        }
+
+        private void describeSequentially() {
+            for (int chunk = from; chunk < to; chunk++) {
+                chunks[chunk] = chunkGenerator.describeChunk(firstChunkIndex + chunk);
+            }
+        }
+    }
+}
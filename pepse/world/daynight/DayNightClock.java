@@ -0,0 +1,183 @@
+package pepse.world.daynight;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.awt.*;
+import java.util.function.IntConsumer;
+
+/**
+ * The time of day, shared by the sun, its halo, the night and the sky. A day is split into STEPS steps,
+ * the sun position, night opacity and sky color of every step are computed once into primitive arrays, and
+ * the celestial objects only look them up when the step changes - no per-frame math. Steps are shorter than
+ * a frame, so the sun moves a little every frame instead of jumping every few frames.
+ *
+ * @author Tamuz Gitler
+ */
+public class DayNightClock {
+
+    //================ public constants ===============
+
+    public static final int STEPS = 24 * 60 * 2; //of a 24 second day, a step lasts half a frame at 60 FPS
+
+    //================ private constants ==============
+
+    private static final float FULL_CIRCLE = 360;
+    private static final float SUN_X_RADIUS_FACTOR = 0.9f;
+    private static final float SUN_Y_RADIUS_FACTOR = 0.6f;
+    private static final float SUN_POSITION_DIVIDER = 2f;
+    private static final float DAY_OPACITY = 0;
+    private static final float MIDNIGHT_OPACITY = 0.5f;
+    private static final float DUSK = 0.5f; //part of the way from day to midnight that looks like dusk
+    private static final int CYCLE_FACTOR = 2;
+    private static final int CUBIC_SQUARE_FACTOR = 3;
+    private static final int CUBIC_CUBE_FACTOR = 2;
+    private static final int NO_STEP = -1;
+
+    private static final Color DAY_SKY_COLOR = Color.decode("#80C6E5");
+    private static final Color DUSK_SKY_COLOR = Color.decode("#E5A680");
+    private static final Color NIGHT_SKY_COLOR = Color.decode("#2B3F66");
+
+    //================ fields =========================
+
+    private final float cycleLength;
+    private final float[] sunCenterX = new float[STEPS];
+    private final float[] sunCenterY = new float[STEPS];
+    private final float[] nightOpacity = new float[STEPS];
+    private final int[] skyColor = new int[STEPS];
+    private float time;
+    private int step;
+
+    //================ constructor ====================
+
+    /**
+     * Constructor
+     *
+     * @param windowDimensions The dimensions of the windows.
+     * @param cycleLength      The amount of seconds a full day takes.
+     */
+    public DayNightClock(Vector2 windowDimensions, float cycleLength) {
+        this.cycleLength = cycleLength;
+        for (int step = 0; step < STEPS; step++) {
+            float dayProgress = (float) step / STEPS;
+            computeSunCenter(step, windowDimensions, dayProgress * FULL_CIRCLE);
+            float nightProgress = nightProgress(dayProgress);
+            nightOpacity[step] = DAY_OPACITY + (MIDNIGHT_OPACITY - DAY_OPACITY) * nightProgress;
+            skyColor[step] = skyColor(nightProgress);
+        }
+    }
+
+    //================ public methods =================
+
+    /**
+     * Advances the time of day. Should be called once per step, before the celestial objects update.
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last step.
+     */
+    public void update(float deltaTime) {
+        this.time = (this.time + deltaTime) % cycleLength;
+        this.step = Math.min((int) (this.time / cycleLength * STEPS), STEPS - 1);
+    }
+
+    /**
+     * Sets the time back to the start of the day.
+     */
+    public void reset() {
+        this.time = 0;
+        this.step = 0;
+    }
+
+    /**
+     * Calls the listener of a celestial object whenever the step changes, from the object's next update.
+     *
+     * @param gameObject object the listener updates
+     * @param listener   called with the new step
+     */
+    public void bind(GameObject gameObject, IntConsumer listener) {
+        int[] lastStep = {NO_STEP};
+        gameObject.addComponent(deltaTime -> {
+            if (this.step != lastStep[0]) {
+                lastStep[0] = this.step;
+                listener.accept(this.step);
+            }
+        });
+    }
+
+    /**
+     * @param step step of the day
+     * @return x coordinate of the sun center at the step, in camera coordinates
+     */
+    public float getSunCenterX(int step) {
+        return sunCenterX[step];
+    }
+
+    /**
+     * @param step step of the day
+     * @return y coordinate of the sun center at the step, in camera coordinates
+     */
+    public float getSunCenterY(int step) {
+        return sunCenterY[step];
+    }
+
+    /**
+     * @param step step of the day
+     * @return opaqueness of the night at the step
+     */
+    public float getNightOpacity(int step) {
+        return nightOpacity[step];
+    }
+
+    /**
+     * @param step step of the day
+     * @return RGB color of the sky at the step
+     */
+    public int getSkyColor(int step) {
+        return skyColor[step];
+    }
+
+    //================ private methods ================
+
+    /*
+     * computes the sun center on its elliptical path at the given angle
+     */
+    private void computeSunCenter(int step, Vector2 windowDimensions, float angleInSky) {
+        double radians = Math.toRadians(angleInSky);
+        float cos = (float) Math.cos(radians);
+        float sin = (float) Math.sin(radians);
+        float width = windowDimensions.x();
+        float height = windowDimensions.y();
+        float rotatedX = SUN_X_RADIUS_FACTOR * (width * cos - height * sin);
+        float rotatedY = SUN_Y_RADIUS_FACTOR * (width * sin + height * cos);
+        sunCenterX[step] = (width - rotatedX) / SUN_POSITION_DIVIDER;
+        sunCenterY[step] = (height - rotatedY) / SUN_POSITION_DIVIDER;
+    }
+
+    /*
+     * @return 0 at noon to 1 at midnight and back, eased in and out like a cubic transition over half a day
+     */
+    private static float nightProgress(float dayProgress) {
+        float halfDayProgress = dayProgress * CYCLE_FACTOR;
+        float linear = halfDayProgress <= 1 ? halfDayProgress : CYCLE_FACTOR - halfDayProgress;
+        return linear * linear * (CUBIC_SQUARE_FACTOR - CUBIC_CUBE_FACTOR * linear);
+    }
+
+    /*
+     * @return RGB sky color - day blue, through dusk, to night blue
+     */
+    private static int skyColor(float nightProgress) {
+        if (nightProgress < DUSK) {
+            return blend(DAY_SKY_COLOR, DUSK_SKY_COLOR, nightProgress / DUSK);
+        }
+        return blend(DUSK_SKY_COLOR, NIGHT_SKY_COLOR, (nightProgress - DUSK) / (1 - DUSK));
+    }
+
+    /*
+     * @return RGB color the given part of the way from one color to the other
+     */
+    private static int blend(Color from, Color to, float part) {
+        int red = Math.round(from.getRed() + (to.getRed() - from.getRed()) * part);
+        int green = Math.round(from.getGreen() + (to.getGreen() - from.getGreen()) * part);
+        int blue = Math.round(from.getBlue() + (to.getBlue() - from.getBlue()) * part);
+        return new Color(red, green, blue).getRGB();
+    }
+}
@@ -3,7 +3,6 @@ package pepse.world.daynight;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.components.CoordinateSpace;
-import danogl.components.Transition;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
 
@@ -19,17 +18,13 @@ public class Night {
     //================ private constants ==============
 
     private static final String NIGHT_TAG = "night-tag";
-    private static final float DAY_OPACITY = 0;
-    private static final float MIDNIGHT_OPACITY = 0.5f;
-    private static final int CYCLE_FACTOR = 2;
 
     //================ public methods =================
 
     /**
      * @param gameObjects      The collection of all participating game objects.
      * @param windowDimensions The dimensions of the windows.
-     * @param cycleLength      The amount of seconds it should take the created game object to complete a
-     *                         full cycle.
+     * @param dayNightClock    The time of day, the opacity of every step is looked up in it.
      * @param layer            The number of the layer to which the created game object should be added
      * @return A new game object representing day-to-night transitions.
      */
@@ -37,7 +32,7 @@ public class Night {
             GameObjectCollection gameObjects,
             int layer,
             Vector2 windowDimensions,
-            float cycleLength
+            DayNightClock dayNightClock
             ) {
 
         RectangleRenderable nightRenderable = new RectangleRenderable(Color.BLACK);
@@ -46,15 +41,8 @@ public class Night {
         gameObjects.addGameObject(night, layer);
         night.setTag(NIGHT_TAG);
 
-        Transition nightTransition = new Transition<Float>(
-                night, //the game object being changed
-                night.renderer()::setOpaqueness,  //the method to call
-                DAY_OPACITY,    //initial transition value
-                MIDNIGHT_OPACITY,   //final transition value
-                Transition.CUBIC_INTERPOLATOR_FLOAT,  //use a cubic interpolator
-                cycleLength / CYCLE_FACTOR,   //transtion fully over half a day
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                null);  //nothing further to execute upon reaching final value
+        dayNightClock.bind(night,
+                step -> night.renderer().setOpaqueness(dayNightClock.getNightOpacity(step)));
 
         return night;
     }
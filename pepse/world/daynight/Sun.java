@@ -3,7 +3,6 @@ package pepse.world.daynight;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.components.CoordinateSpace;
-import danogl.components.Transition;
 import danogl.gui.rendering.OvalRenderable;
 import danogl.util.Vector2;
 
@@ -19,23 +18,17 @@ public class Sun {
 
     //================ private constants ==============
 
-    private static final float SUN_FIRST_DEG = 0;
-    private static final float SUN_LAST_DEG = 360;
     private static final float SUN_DIAMETER = 50;
-    private static final float VEC_CENTER_FACTOR = 0.9f;
-    private static final float VEC_CENTRY_FACTOR = 0.6f;
-    private static final float SUN_POSITION_DIVIDER = 2f;
     private static final float SUN_DIMENSION_FACTOR = 0.5f;
 
     //================ public methods =================
 
     /**
      * This function creates a yellow circle that moves in the sky in an elliptical path (in camera
-     * coordinates).
+     * coordinates), following the time of day of the clock.
      *
      * @param windowDimensions The dimensions of the windows.
-     * @param cycleLength      The amount of seconds it should take the created game object to complete a
-     *                         full cycle.
+     * @param dayNightClock    The time of day, the sun position of every step is looked up in it.
      * @param gameObjects      The collection of all participating game objects.
      * @param layer            The number of the layer to which the created sun should be added.
      * @return A new game object representing the sun.
@@ -44,7 +37,7 @@ public class Sun {
             GameObjectCollection gameObjects,
             int layer,
             Vector2 windowDimensions,
-            float cycleLength
+            DayNightClock dayNightClock
             ) {
         Vector2 sunSize = new Vector2(SUN_DIAMETER, SUN_DIAMETER);
         GameObject sun = new GameObject(
@@ -54,39 +47,24 @@ public class Sun {
         gameObjects.addGameObject(sun, layer);
         sun.setTag(SUN_TAG);
 
-        Transition sunTransition = new Transition<Float>(
-                sun, //the game object being changed
-                (Float angleInSky) -> sun.setCenter(calcSunPosition(windowDimensions, angleInSky)), //the
-                // method to call
-                SUN_FIRST_DEG,    //initial transition value
-                SUN_LAST_DEG,   //final transition value
-                Transition.LINEAR_INTERPOLATOR_FLOAT,  //use a cubic interpolator
-                cycleLength,   //transtion fully over half a day
-                Transition.TransitionType.TRANSITION_LOOP,
-                null);  //nothing further to execute upon reaching final value
-
+        Vector2[] topLeftCorners = topLeftCorners(dayNightClock, sunSize);
+        dayNightClock.bind(sun, step -> sun.setTopLeftCorner(topLeftCorners[step]));
         return sun;
-
     }
 
-    //================ private methods ================
-
     /**
-     * calculates new position of sun
+     * Positions of an object centered on the sun, for every step of the day.
      *
-     * @param windowDimensions The dimensions of the windows.
-     * @param angleInSky       degree of sun
-     * @return new sun Position
+     * @param dayNightClock The time of day.
+     * @param dimensions    Dimensions of the object.
+     * @return top left corner of the object at every step
      */
-    private static Vector2 calcSunPosition(Vector2 windowDimensions, float angleInSky) {
-        Vector2 vecCenter = windowDimensions.mult(VEC_CENTER_FACTOR);
-        Vector2 vecCenerty = windowDimensions.mult(VEC_CENTRY_FACTOR);
-        vecCenter = vecCenter.rotated(angleInSky);
-        vecCenerty = vecCenerty.rotated(angleInSky);
-        return new Vector2((windowDimensions.x() - vecCenter.x()) / SUN_POSITION_DIVIDER,
-                (windowDimensions.y() -
-                        vecCenerty.y()) / SUN_POSITION_DIVIDER);
+    public static Vector2[] topLeftCorners(DayNightClock dayNightClock, Vector2 dimensions) {
+        Vector2[] topLeftCorners = new Vector2[DayNightClock.STEPS];
+        for (int step = 0; step < DayNightClock.STEPS; step++) {
+            topLeftCorners[step] = new Vector2(dayNightClock.getSunCenterX(step) - dimensions.x() / 2,
+                    dayNightClock.getSunCenterY(step) - dimensions.y() / 2);
+        }
+        return topLeftCorners;
     }
-
 }
-
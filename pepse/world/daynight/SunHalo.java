@@ -4,6 +4,7 @@ import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.components.CoordinateSpace;
 import danogl.gui.rendering.OvalRenderable;
+import danogl.util.Vector2;
 
 import java.awt.*;
 
@@ -22,23 +23,29 @@ public class SunHalo {
     //================ public methods =================
 
     /**
-     * @param gameObjects The collection of all participating game objects.
-     * @param sun         A game object representing the sun (it will be followed by the created game object).
-     * @param color       The color of the halo.
-     * @param layer       The number of the layer to which the created halo should be added.
+     * @param gameObjects   The collection of all participating game objects.
+     * @param sun           A game object representing the sun (it will be followed by the created game
+     *                      object).
+     * @param color         The color of the halo.
+     * @param layer         The number of the layer to which the created halo should be added.
+     * @param dayNightClock The time of day the sun follows, the halo is centered on the sun of every step.
      * @return A new game object representing the sun's halo.
      */
     public static GameObject create(
             GameObjectCollection gameObjects,
             int layer,
             GameObject sun,
-            Color color
+            Color color,
+            DayNightClock dayNightClock
             ) {
-        GameObject sunHalo = new GameObject(sun.getTopLeftCorner(), sun.getDimensions().mult(HALO_FACTOR),
-                new OvalRenderable(color));
+        Vector2 haloSize = sun.getDimensions().mult(HALO_FACTOR);
+        GameObject sunHalo = new GameObject(sun.getTopLeftCorner(), haloSize, new OvalRenderable(color));
         gameObjects.addGameObject(sunHalo, layer);
         sunHalo.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES); //sky will follow the screen
         sunHalo.setTag(SUNHALO_TAG);
+
+        Vector2[] topLeftCorners = Sun.topLeftCorners(dayNightClock, haloSize);
+        dayNightClock.bind(sunHalo, step -> sunHalo.setTopLeftCorner(topLeftCorners[step]));
         return sunHalo;
     }
 }
@@ -3,22 +3,25 @@ package pepse.world.trees;
 import danogl.GameObject;
 import danogl.collisions.Collision;
 import danogl.collisions.GameObjectCollection;
-import danogl.components.ScheduledTask;
-import danogl.components.Transition;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import pepse.util.PerlinNoise;
 import pepse.PepseGameManager;
 import pepse.world.Block;
+import pepse.world.ParallelUpdatable;
+import pepse.world.ParallelUpdater;
 
 import java.util.Random;
+import java.util.function.BooleanSupplier;
 
 /**
- * Leaf class - inits a leaf with life cycle - will start falling, disappear and return to the tree
+ * Leaf class - inits a leaf with life cycle - will start falling, disappear and return to the tree. The life
+ * cycle is driven by timers of the leaf rather than scheduled tasks and fades, which would be created anew
+ * for every cycle of every leaf.
  *
  * @author Tamuz Gitler
  */
-public class Leaf extends Block {
+public class Leaf extends Block implements ParallelUpdatable {
 
     //================ public constants ===============
 
@@ -34,7 +37,6 @@ public class Leaf extends Block {
     private static final int Y_WIDTH_CHANGE = 1;
     private static final int MAX_WAIT_TIME = 15;
     private static final int NOISE_FACTOR = 60;
-    private static final int TRANSITION_TIME = 20;
     private static final int FALLING_VELOCITY = 50;
     private static final int MIN_WAIT_TIME = 3;
     private static final int FADEOUT_TIME = 25;
@@ -46,19 +48,20 @@ public class Leaf extends Block {
     private static final float TRANSITION_VALUE = 100f;
     private static final float DARK_OPAQUENESS = 1f;
     private static final float DOWN = -1f;
-    private static final float MIN_FALL_TRANISITION = 25f;
-    private static final float MAX_FALL_TRANSITION = 50f;
+    private static final float NOT_SCHEDULED = -1f;
+    private static final float FADED_OUT = 0f;
 
     private static final Vector2 LEAF_TRANSITION_SIZE = new Vector2(30, 30);
+    private static final Vector2 LEAF_SIZE = Vector2.ONES.mult(Block.SIZE);
+    private static final Vector2 NEGATIVE_ONES = Vector2.ONES.mult(DOWN);
 
 
     //================ fields =========================
 
     private float cycleLength;
 
-    private Transition<Float> leafFallingTransition;
-    private Transition<Float> leafWidthTransition;
-    private Transition<Float> leafAngleTransition;
+    private boolean isSwaying;
+    private float swayTime; //seconds into the current back and forth sway
 
     private final PerlinNoise myNoiseGenerator;
 
@@ -68,6 +71,20 @@ public class Leaf extends Block {
 
     private final GameObjectCollection gameObjects;
 
+    private final BooleanSupplier isAnimated;
+
+    private ParallelUpdater parallelUpdater;
+
+    private final Runnable moveToLeafLayer;
+    private final Runnable moveToFallingLayer;
+
+    private float timeOnTree; //seconds the leaf hangs on its tree in the current cycle
+    private float timeTillFall = NOT_SCHEDULED;
+    private float timeTillSway = NOT_SCHEDULED;
+    private float fadeOutTime; //seconds the falling leaf takes to fade out
+    private float timeTillFadedOut = NOT_SCHEDULED;
+    private float timeTillRevive = NOT_SCHEDULED;
+
     //================ constructor ====================
 
     /**
@@ -75,12 +92,17 @@ public class Leaf extends Block {
      *
      * @param topLeftCorner The location of the top-left corner of the created block.
      * @param renderable    A renderable to render as the block.
+     * @param cycleLength   The amount of seconds it should take the leaf to complete a full cycle.
+     * @param gameObjects   The collection of all participating game objects.
+     * @param seed          A seed for a random number generator.
+     * @param isAnimated    tells whether the leaf should sway and stretch in its next life cycle
      */
     public Leaf(Vector2 topLeftCorner,
                 Renderable renderable,
                 float cycleLength,
                 GameObjectCollection gameObjects,
-                int seed) {
+                int seed,
+                BooleanSupplier isAnimated) {
         super(topLeftCorner, renderable);
 
         /* initialize fields*/
@@ -89,12 +111,46 @@ public class Leaf extends Block {
         this.gameObjects = gameObjects;
         this.random = new Random(seed);
         this.myNoiseGenerator = new PerlinNoise(seed);
+        this.isAnimated = isAnimated;
+        this.moveToLeafLayer = () -> changeLayer(PepseGameManager.LEAF_LAYER);
+        this.moveToFallingLayer = () -> changeLayer(PepseGameManager.FALLING_LEAF_LAYER);
 
         createLeafCycleLife(); //starts cycle of leaf life
     }
 
     //================ public methods =================
 
+    /**
+     * Should be called once per frame by the engine - does nothing if the leaf is updated in parallel.
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        if (this.parallelUpdater == null) {
+            updateLeaf(deltaTime);
+        }
+    }
+
+    /**
+     * Updates the leaf transitions and timers, called by the parallel updater.
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    @Override
+    public void updateInParallel(float deltaTime) {
+        updateLeaf(deltaTime);
+    }
+
+    /**
+     * Makes the leaf updated by a parallel updater instead of the engine.
+     *
+     * @param parallelUpdater updates the leaf and applies its layer moves
+     */
+    public void updateWith(ParallelUpdater parallelUpdater) {
+        this.parallelUpdater = parallelUpdater;
+    }
+
     /**
      * Overrides onCollision to change behaviour
      *
@@ -109,124 +165,151 @@ public class Leaf extends Block {
         }
         this.physics().setMass(NO_MASS);
         preventIntersection();
-        removeTransition();
+        stopSwaying();
         stopVelocity();
-        this.setDimensions(new Vector2(Block.SIZE, Block.SIZE)); //reset dimension of leaf
+        this.setDimensions(LEAF_SIZE); //reset dimension of leaf
     }
 
     //================ private methods ================
 
     /*
-     * creates leaf angle transition
+     * updates the leaf components, advances its life cycle and sways it - without allocating, so a frame of
+     * leafs allocates nothing
      */
-    private void createAngleTransition() {
-        //(Float angle) -> leaf.renderer().setRenderableAngle(angle),   //the method to call
-        this.leafAngleTransition = new Transition<Float>(
-                this, //the game object being changed
-                (Float angle) -> this.renderer().setRenderableAngle(angle),   //the method to call
-                -TRANSITION_VALUE, TRANSITION_VALUE   //initial transition value
-                ,   //final transition value
-                Transition.LINEAR_INTERPOLATOR_FLOAT,  //use a cubic interpolator
-                this.cycleLength,   //transtion fully over half a day
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                null);  //nothing further to execute upon reaching final value
+    private void updateLeaf(float deltaTime) {
+        super.update(deltaTime);
+        advanceLifeCycle(deltaTime);
+        if (this.isSwaying) {
+            sway(deltaTime);
+        }
     }
 
     /*
-     * creates leaf width transition
+     * counts down the timers of the life cycle and moves it on when one runs out
      */
-    private void createWidthTransition() {
-        Vector2 leafTransitionSize = LEAF_TRANSITION_SIZE.add(Vector2.of(
-                this.random.nextInt(
-                        X_WIDTH_CHANGE + X_WIDTH_CHANGE) + X_WIDTH_CHANGE,
-                random.nextInt(Y_WIDTH_CHANGE + Y_WIDTH_CHANGE) + Y_WIDTH_CHANGE));
-        this.leafWidthTransition = new Transition<Float>(
-                this, //the game object being changed
-                (Float angle) -> this.setDimensions(leafTransitionSize),   //the method to call
-                -TRANSITION_VALUE,    //initial transition value
-                TRANSITION_VALUE,   //final transition value
-                Transition.LINEAR_INTERPOLATOR_FLOAT,  //use a cubic interpolator
-                cycleLength / CYCLE_FACOTR,   //transtion fully over half a day
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                null);  //nothing further to execute upon reaching final value
+    private void advanceLifeCycle(float deltaTime) {
+        if (this.timeTillSway != NOT_SCHEDULED) {
+            this.timeTillSway -= deltaTime;
+            if (this.timeTillSway <= 0) {
+                this.timeTillSway = NOT_SCHEDULED;
+                startSwaying();
+            }
+        }
+        if (this.timeTillFall != NOT_SCHEDULED) {
+            this.timeTillFall -= deltaTime;
+            if (this.timeTillFall <= 0) {
+                this.timeTillFall = NOT_SCHEDULED;
+                fall();
+            }
+        }
+        if (this.timeTillFadedOut != NOT_SCHEDULED) {
+            this.timeTillFadedOut = Math.max(this.timeTillFadedOut - deltaTime, FADED_OUT);
+            this.renderer().setOpaqueness(DARK_OPAQUENESS * this.timeTillFadedOut / this.fadeOutTime);
+            if (this.timeTillFadedOut == FADED_OUT) {
+                this.timeTillFadedOut = NOT_SCHEDULED;
+                this.timeTillRevive = random.nextInt(MAX_DEAD_TIME - MIN_DEAD_TIME) + MIN_DEAD_TIME;
+            }
+        }
+        if (this.timeTillRevive != NOT_SCHEDULED) {
+            this.timeTillRevive -= deltaTime;
+            if (this.timeTillRevive <= 0) {
+                this.timeTillRevive = NOT_SCHEDULED;
+                revive();
+            }
+        }
     }
 
     /*
-     * creates leaf life cycle
+     * turns the leaf back and forth between -TRANSITION_VALUE and TRANSITION_VALUE degrees, a full turn to
+     * one side every cycleLength seconds
      */
-    private void createLeafCycleLife() {
-        initLeafOnTreeBehaviour();
-        Runnable afterFadeOut = initAfterFadeOut();
-        initFallingLeafScheduler(afterFadeOut);
-        initLeafAngleScheduler();
+    private void sway(float deltaTime) {
+        this.swayTime = (this.swayTime + deltaTime) % (CYCLE_FACOTR * this.cycleLength);
+        float progress = this.swayTime / this.cycleLength;
+        if (progress > 1) {
+            progress = CYCLE_FACOTR - progress; //on the way back
+        }
+        this.renderer().setRenderableAngle(-TRANSITION_VALUE + CYCLE_FACOTR * TRANSITION_VALUE * progress);
     }
 
     /*
-     * init after fadeOut efects
-     * @return runnable afterFadeOut
+     * moves the leaf to a layer by one of its moves - deferred until the parallel pass is over when the leaf
+     * is updated in parallel
      */
-    private Runnable initAfterFadeOut() {
-        Runnable reviveLeaf = () -> {
-            this.setCenter(this.leafPosition);
-            this.renderer().setOpaqueness(DARK_OPAQUENESS);
-            gameObjects.removeGameObject(this);
-            gameObjects.addGameObject(this, PepseGameManager.LEAF_LAYER);
-            this.setTag(LEAF_TAG);
-            createLeafCycleLife();
-        };
-
-        Runnable afterFadeOut = () -> {
-            float randomTimeThatLeafIsDead = random.nextInt(MAX_DEAD_TIME - MIN_DEAD_TIME) +
-                    MIN_DEAD_TIME;
-            ScheduledTask scheduleTillLeafRenew = new ScheduledTask(
-                    this,
-                    randomTimeThatLeafIsDead,
-                    false,
-                    reviveLeaf);
-        };
-        return afterFadeOut;
+    private void moveToLayer(Runnable move) {
+        if (this.parallelUpdater == null) {
+            move.run();
+            return;
+        }
+        this.parallelUpdater.defer(move);
     }
 
     /*
-     * inits falling leaf scheduler
-     * @param afterFadeOut runnable
+     * moves the leaf to a layer right away
      */
-    private void initFallingLeafScheduler(Runnable afterFadeOut) {
-        float randomTimeTillFalling = random.nextInt(MAX_FALLING_TIME - MIN_FALLING_TIME) +
-                MIN_FALLING_TIME;
-
-        Runnable fallingLeaf = () -> {
-
-            float LeafRandomFadeoutTime = random.nextInt(FADEOUT_TIME) + randomTimeTillFalling;
-            gameObjects.removeGameObject(this);
-            gameObjects.addGameObject(this, PepseGameManager.FALLING_LEAF_LAYER);
+    private void changeLayer(int layer) {
+        gameObjects.removeGameObject(this);
+        gameObjects.addGameObject(this, layer);
+        setCullingLayer(layer);
+        setCulledWithGroup(layer != PepseGameManager.FALLING_LEAF_LAYER); //a falling leaf may drift away
+        if (layer == PepseGameManager.FALLING_LEAF_LAYER) {
             gameObjects.layers().shouldLayersCollide(PepseGameManager.FALLING_LEAF_LAYER,
                     PepseGameManager.COLLIDABLE_TERRIAN_LAYER, true);
-            creatLeafFallingTransition();
-            this.renderer().fadeOut(LeafRandomFadeoutTime, afterFadeOut);
-            this.renderer().fadeOut(LeafRandomFadeoutTime);
-            this.setTag(FALLING_LEAF_TAG);
-        };
-
-        //2. after LeafRandomLifeTime is reached leaf start to fall
-        ScheduledTask scheduleTillLeafFall = new ScheduledTask(
-                this,
-                randomTimeTillFalling,
-                false,
-                fallingLeaf);
+        }
+    }
+
+    /*
+     * starts swaying the leaf from its leftmost angle
+     */
+    private void startSwaying() {
+        this.isSwaying = true;
+        this.swayTime = 0;
+    }
+
+    /*
+     * stretches the leaf to a random size around LEAF_TRANSITION_SIZE, kept until the leaf lands
+     */
+    private void stretch() {
+        float widthChange = this.random.nextInt(X_WIDTH_CHANGE + X_WIDTH_CHANGE) + X_WIDTH_CHANGE;
+        float heightChange = this.random.nextInt(Y_WIDTH_CHANGE + Y_WIDTH_CHANGE) + Y_WIDTH_CHANGE;
+        this.setDimensions(new Vector2(LEAF_TRANSITION_SIZE.x() + widthChange,
+                LEAF_TRANSITION_SIZE.y() + heightChange)); //the only vector of a new cycle
+    }
+
+    /*
+     * creates leaf life cycle - the leaf falls after its time on the tree, and sways from a random time on
+     * if animated
+     */
+    private void createLeafCycleLife() {
+        initLeafOnTreeBehaviour();
+        this.timeOnTree = random.nextInt(MAX_FALLING_TIME - MIN_FALLING_TIME) + MIN_FALLING_TIME;
+        this.timeTillFall = this.timeOnTree;
+        if (isAnimated.getAsBoolean()) { //in cheap mode the leaf only falls
+            this.timeTillSway = random.nextInt(MAX_WAIT_TIME - MIN_WAIT_TIME) + MIN_WAIT_TIME;
+        }
     }
 
     /*
-     * init leaf angle scheduler
+     * drops the leaf off its tree, it fades out while falling
      */
-    private void initLeafAngleScheduler() {
-        float waitTime = random.nextInt(MAX_WAIT_TIME - MIN_WAIT_TIME) + MIN_WAIT_TIME;
-
-        ScheduledTask leafAngleScheduler = new ScheduledTask(
-                this,
-                waitTime,
-                false,
-                this::createAngleTransition);
+    private void fall() {
+        this.fadeOutTime = random.nextInt(FADEOUT_TIME) + this.timeOnTree;
+        moveToLayer(this.moveToFallingLayer);
+        setFallingLeafVelocity();
+        this.timeTillFadedOut = this.fadeOutTime;
+        this.setTag(FALLING_LEAF_TAG);
+    }
+
+    /*
+     * returns the faded out leaf to its tree and starts a new life cycle
+     */
+    private void revive() {
+        this.setCenter(this.leafPosition);
+        this.renderer().setOpaqueness(DARK_OPAQUENESS);
+        moveToLayer(this.moveToLeafLayer);
+        this.setTag(LEAF_TAG);
+        stopSwaying();
+        createLeafCycleLife();
     }
 
     /*
@@ -236,14 +319,15 @@ public class Leaf extends Block {
         this.transform().setVelocityY(NO_MOVEMENT);
         this.transform().setVelocityX(NO_MOVEMENT);
         this.physics().setMass(NO_MASS);
-        createWidthTransition();
+        if (isAnimated.getAsBoolean()) {
+            stretch();
+        }
     }
 
     /*
-     * sets the velocity of the falling speed
-     * @param speed to set
+     * sets the velocity of the falling leaf, drifting sideways by the noise at its place on the tree
      */
-    private void setFallingLeafVelocity(float speed) {
+    private void setFallingLeafVelocity() {
         this.transform().setVelocityY(FALLING_VELOCITY);
         this.transform().setVelocityX((float) (NOISE_FACTOR * this.myNoiseGenerator.noise(
                 this.leafPosition.x())));
@@ -259,12 +343,10 @@ public class Leaf extends Block {
     }
 
     /*
-     * remove all transition
+     * stops swaying the leaf
      */
-    private void removeTransition() {
-        this.removeComponent(leafFallingTransition);
-        this.removeComponent(leafAngleTransition);
-        this.removeComponent(leafWidthTransition);
+    private void stopSwaying() {
+        this.isSwaying = false;
     }
 
     /*
@@ -277,22 +359,7 @@ public class Leaf extends Block {
         physics().preventIntersectionsFromDirection(Vector2.LEFT);
         physics().preventIntersectionsFromDirection(Vector2.RIGHT);
         physics().preventIntersectionsFromDirection(Vector2.ONES);
-        physics().preventIntersectionsFromDirection(Vector2.ONES.mult(DOWN));
-    }
-
-    /*
-     * creates leaf falling transition
-     */
-    private void creatLeafFallingTransition() {
-        this.leafFallingTransition = new Transition<Float>(
-                this, //the game object being changed
-                this::setFallingLeafVelocity,   //the method to call
-                MIN_FALL_TRANISITION, MAX_FALL_TRANSITION   //initial transition value
-                ,   //final transition value
-                Transition.LINEAR_INTERPOLATOR_FLOAT,  //use a cubic interpolator
-                TRANSITION_TIME,   //transtion fully over half a day
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                null);  //nothing further to execute upon reaching final value
+        physics().preventIntersectionsFromDirection(NEGATIVE_ONES);
     }
 
 }
@@ -7,10 +7,14 @@ import danogl.util.Vector2;
 import pepse.PepseGameManager;
 import pepse.util.ColorSupplier;
 import pepse.world.Block;
+import pepse.world.ParallelUpdater;
+import pepse.world.chunks.Chunk;
+import pepse.world.chunks.TreeDescriptor;
 
 import java.awt.*;
 import java.util.Objects;
 import java.util.Random;
+import java.util.function.BooleanSupplier;
 
 /**
  * Creates leafs in given x coordinate
@@ -28,6 +32,7 @@ public class Leaves {
     private static final int LEAVES_IN_ROW_FACTOR = 6;
     private static final int LEAVES_IN_COL_FACTOR = 10;
     private static final int PADDING_DIVIDOR = 2;
+    private static final int DENSITY_RESOLUTION = 100;
 
     private static final String LEAF_TAG = "leaf-tag";
 
@@ -36,26 +41,25 @@ public class Leaves {
 
     //================ fields =========================
 
-    private final Random random;
     private final GameObjectCollection gameObjects;
     private final float cycleLength;
     private final int seed;
-    private static int counter; //used for hashing
+    private float leafDensity = 1;
+    private boolean isAnimated = true;
+    private final BooleanSupplier animationSwitch = () -> isAnimated; //shared by all the leafs
+    private ParallelUpdater parallelUpdater;
 
     //================ constructor ====================
 
     /**
      * Constructor.
      *
-     * @param random      random randomAccordingToXCoordinate
      * @param cycleLength The amount of seconds it should take the created game object to complete a full
      *                    cycle.
      * @param gameObjects The collection of all participating game objects.
      * @param seed        A seed for a random number generator.
      */
-    public Leaves(Random random, float cycleLength, GameObjectCollection gameObjects,
-                  int seed) {
-        this.random = random;
+    public Leaves(float cycleLength, GameObjectCollection gameObjects, int seed) {
         this.cycleLength = cycleLength;
         this.gameObjects = gameObjects;
         this.seed = seed;
@@ -64,56 +68,103 @@ public class Leaves {
     //================ public methods =================
 
     /**
-     * Creates tree leafs.
+     * @return fingerprint of the constants the leafs generation depends on
+     */
+    public static int generatorFingerprint() {
+        return Objects.hash(LOWER_BOUND_CHANCE_TO_GROW_LEAF, MAX_CHANCE, RAND_ROW_LEAVES, RAND_COL_LEAVES,
+                LEAVES_IN_ROW_FACTOR, LEAVES_IN_COL_FACTOR, PADDING_DIVIDOR, TREE_LEAF_COLOR.getRGB());
+    }
+
+    /**
+     * Describes tree leafs and adds them to the tree descriptor.
      *
-     * @param treeXCoordinate for building tree located on x axis
-     * @param treeHeight      trees random height
+     * @param tree   descriptor of the tree, its x coordinate and height are used for placing the leafs
+     * @param random random seeded by the tree location
      */
-    public void createLeafs(int treeXCoordinate, float treeHeight) {
+    public void describeLeafs(TreeDescriptor tree, Random random) {
+        int treeXCoordinate = tree.getX();
+        float treeHeight = tree.getTopY();
+
         /* deciding how many leafs to create*/
-        int numOfLeavesInRow = this.random.nextInt(RAND_ROW_LEAVES) + LEAVES_IN_ROW_FACTOR;
-        int numOfLeavesInCol = this.random.nextInt(RAND_COL_LEAVES) + LEAVES_IN_COL_FACTOR;
+        int numOfLeavesInRow = random.nextInt(RAND_ROW_LEAVES) + LEAVES_IN_ROW_FACTOR;
+        int numOfLeavesInCol = random.nextInt(RAND_COL_LEAVES) + LEAVES_IN_COL_FACTOR;
         int leafPadding = (int) ((numOfLeavesInRow * Block.SIZE) / PADDING_DIVIDOR);
 
         for (int col = 0; col < numOfLeavesInCol; col++) {
             float yCoordinate = treeHeight - (col * Block.SIZE);
             for (int row = 0; row < numOfLeavesInRow; row++) {
-                int rand = this.random.nextInt(MAX_CHANCE);
+                int rand = random.nextInt(MAX_CHANCE);
                 if (rand > LOWER_BOUND_CHANCE_TO_GROW_LEAF) {
                     float xCoordinate = treeXCoordinate - (row * Block.SIZE) + leafPadding;
-                    Vector2 leafPosition = new Vector2(xCoordinate, yCoordinate);
-                    RectangleRenderable rectangleRenderable = new RectangleRenderable
-                            (ColorSupplier.approximateColor(TREE_LEAF_COLOR));
-                    GameObject leaf = new Leaf(leafPosition,
-                            rectangleRenderable,
-                            this.cycleLength,
-                            this.gameObjects,
-                            (int) hashCode((int) (treeXCoordinate + yCoordinate + Leaves.counter),
-                                    this.seed));
-                    gameObjects.addGameObject(leaf, PepseGameManager.LEAF_LAYER);
-                    leaf.setTag(LEAF_TAG);
-                    Leaves.counter++;
+                    tree.addLeaf(xCoordinate, yCoordinate,
+                            ColorSupplier.approximateColor(TREE_LEAF_COLOR, random).getRGB(),
+                            (int) hashCode((int) xCoordinate, (int) yCoordinate, this.seed));
                 }
             }
         }
     }
 
+    /**
+     * Sets the quality of the leafs created from now on. Thinned leafs are picked by their seed, so the same
+     * leafs are dropped every time a tree is created.
+     *
+     * @param leafDensity part of the described leafs to create, between 0 and 1
+     * @param isAnimated  true if leafs sway and stretch on the tree, existing leafs follow from their next
+     *                    life cycle
+     */
+    public void setQuality(float leafDensity, boolean isAnimated) {
+        this.leafDensity = leafDensity;
+        this.isAnimated = isAnimated;
+    }
+
+    /**
+     * Makes the leafs created from now on updated by a parallel updater instead of the engine.
+     *
+     * @param parallelUpdater updates the leafs, null for the engine
+     */
+    public void setParallelUpdater(ParallelUpdater parallelUpdater) {
+        this.parallelUpdater = parallelUpdater;
+    }
+
+    /**
+     * Creates the leafs of a described tree.
+     *
+     * @param tree  descriptor of the tree whose leafs are created
+     * @param chunk the resident chunk the leafs are added to
+     */
+    public void createLeafs(TreeDescriptor tree, Chunk chunk) {
+        int densityThreshold = (int) (leafDensity * DENSITY_RESOLUTION);
+        for (int leafIndex = 0; leafIndex < tree.getNumOfLeaves(); leafIndex++) {
+            if (Math.floorMod(tree.getLeafSeed(leafIndex), DENSITY_RESOLUTION) >= densityThreshold) {
+                continue; //thinned out
+            }
+            Vector2 leafPosition = new Vector2(tree.getLeafX(leafIndex), tree.getLeafY(leafIndex));
+            RectangleRenderable rectangleRenderable = new RectangleRenderable(
+                    new Color(tree.getLeafColor(leafIndex)));
+            Leaf leaf = new Leaf(leafPosition,
+                    rectangleRenderable,
+                    this.cycleLength,
+                    this.gameObjects,
+                    tree.getLeafSeed(leafIndex),
+                    animationSwitch);
+            if (parallelUpdater != null) {
+                leaf.updateWith(parallelUpdater);
+            }
+            chunk.addGameObject(leaf, PepseGameManager.LEAF_LAYER);
+            leaf.setTag(LEAF_TAG);
+        }
+    }
+
     //================ private methods ================
 
     /*
      * overrides hash function
      * @param coordinateX of leaf
+     * @param coordinateY of leaf
      * @param seed A seed for a random number generator.
-     * @return hash calculated with coordinateX and seed
+     * @return hash calculated with leaf coordinates and seed
      */
-    private long hashCode(int coordinateX, int seed) {
-        return Objects.hash(coordinateX, seed);
+    private long hashCode(int coordinateX, int coordinateY, int seed) {
+        return Objects.hash(coordinateX, coordinateY, seed);
     }
 }
-
-
-
-
-
-
-
@@ -4,8 +4,13 @@ import danogl.collisions.GameObjectCollection;
 import danogl.util.Vector2;
 import pepse.PepseGameManager;
 import pepse.world.Block;
+import pepse.world.ParallelUpdater;
 import pepse.world.Terrain;
+import pepse.world.chunks.Chunk;
+import pepse.world.chunks.TreeDescriptor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Random;
 
@@ -32,7 +37,7 @@ public class Tree {
 
     private final float cycleLength;
 
-    private Random randomAccordingToXCoordinate;
+    private final Leaves leaves;
 
     private final Vector2 windowDimensions;
 
@@ -61,25 +66,72 @@ public class Tree {
         this.terrain = terrain;
         this.cycleLength = cycleLength;
         this.seed = seed;
+        this.leaves = new Leaves(cycleLength, gameObjects, seed);
     }
 
     //================ public methods =================
 
     /**
-     * This method creates trees in a given range of x-values.
+     * Sets the quality of the leafs of trees created from now on.
+     *
+     * @param leafDensity part of the described leafs to create, between 0 and 1
+     * @param isAnimated  true if leafs sway and stretch on the tree
+     */
+    public void setLeafQuality(float leafDensity, boolean isAnimated) {
+        this.leaves.setQuality(leafDensity, isAnimated);
+    }
+
+    /**
+     * Makes the leafs of trees created from now on updated by a parallel updater instead of the engine.
+     *
+     * @param parallelUpdater updates the leafs, null for the engine
+     */
+    public void setParallelUpdater(ParallelUpdater parallelUpdater) {
+        this.leaves.setParallelUpdater(parallelUpdater);
+    }
+
+    /**
+     * Fingerprint of everything the trees generation depends on, changes whenever a generator constant
+     * changes so stale cached chunks are not reused.
+     *
+     * @return fingerprint of the trees generator
+     */
+    public int generatorFingerprint() {
+        return Objects.hash(seed, windowDimensions.y(), CHANCE_TO_PLANT_TREE, HEIGHT_FACTOR,
+                MAX_CHANCE_FOR_CREATING_TREE, TREE_FACTOR, SPACE_BETWEEN_TREES,
+                Trunk.generatorFingerprint(), Leaves.generatorFingerprint());
+    }
+
+    /**
+     * Describes the trees in a given range of x-values without creating any game object.
+     * Safe to call from several threads at once.
      *
      * @param minRange The lower bound of the given range (will be rounded to a multiple of Block.SIZE).
      * @param maxRange The upper bound of the given range (will be rounded to a multiple of Block.SIZE).
+     * @return the trees in range, left to right
      */
-    public void createInRange(int minRange, int maxRange) {
+    public List<TreeDescriptor> describeInRange(int minRange, int maxRange) {
+        List<TreeDescriptor> trees = new ArrayList<>();
         for (int xCoordinate = minRange; xCoordinate < maxRange; xCoordinate += Block.SIZE) {
-            this.randomAccordingToXCoordinate = new Random(hashCode(xCoordinate, seed));
+            Random randomAccordingToXCoordinate = new Random(hashCode(xCoordinate, seed));
             int rand = randomAccordingToXCoordinate.nextInt(MAX_CHANCE_FOR_CREATING_TREE);
             if (rand < CHANCE_TO_PLANT_TREE) {
-                createTree(xCoordinate);
+                trees.add(describeTree(xCoordinate, randomAccordingToXCoordinate));
                 xCoordinate += SPACE_BETWEEN_TREES; //trees are not exactly next to each other
             }
         }
+        return trees;
+    }
+
+    /**
+     * Creates full tree with trunk and leafs from its descriptor.
+     *
+     * @param tree  descriptor of the tree to create
+     * @param chunk the resident chunk the trunk and leafs are added to
+     */
+    public void createTree(TreeDescriptor tree, Chunk chunk) {
+        Trunk.createTrunk(tree, chunk);
+        this.leaves.createLeafs(tree, chunk);
     }
 
 
@@ -96,26 +148,29 @@ public class Tree {
     }
 
     /*
-     * Creates full tree with trunk and leafs.
+     * Describes full tree with trunk and leafs.
      * @param treeXCoordinate for building tree located on x axis
+     * @param randomAccordingToXCoordinate random seeded by the tree location
+     * @return descriptor of the tree
      */
-    private void createTree(int treeXCoordinate) {
+    private TreeDescriptor describeTree(int treeXCoordinate, Random randomAccordingToXCoordinate) {
         float totalHeight = windowDimensions.y();
 
         float currFloorHeight = ((int) (terrain.groundHeightAt(treeXCoordinate) / Block.SIZE)) * Block.SIZE;
         float floorHeightSize = (totalHeight - currFloorHeight);
         float maxTreeHeightSize = (totalHeight - floorHeightSize) / TREE_FACTOR;
         float minTreeHeightRange = (maxTreeHeightSize / HEIGHT_FACTOR);
-        int treeHeight = (int) (this.randomAccordingToXCoordinate.nextInt(
+        int treeHeight = (int) (randomAccordingToXCoordinate.nextInt(
                         (int) (maxTreeHeightSize - minTreeHeightRange)) + (minTreeHeightRange));
         treeHeight = PepseGameManager.roundUp(treeHeight);
 
-        /* create trunk */
-        Trunk.createTrunk(treeXCoordinate, treeHeight, (int) currFloorHeight, this.gameObjects);
+        /* describe trunk */
+        TreeDescriptor tree = new TreeDescriptor(treeXCoordinate, (int) currFloorHeight, treeHeight,
+                Trunk.describeTrunk(treeHeight, (int) currFloorHeight, randomAccordingToXCoordinate));
 
-        /* create leaves */
-        Leaves leaves = new Leaves(this.randomAccordingToXCoordinate, cycleLength, gameObjects, seed);
-        leaves.createLeafs(treeXCoordinate, treeHeight);
+        /* describe leaves */
+        this.leaves.describeLeafs(tree, randomAccordingToXCoordinate);
+        return tree;
     }
 
 
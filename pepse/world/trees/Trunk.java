@@ -1,14 +1,17 @@
 package pepse.world.trees;
 
 import danogl.GameObject;
-import danogl.collisions.GameObjectCollection;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
 import pepse.PepseGameManager;
 import pepse.util.ColorSupplier;
 import pepse.world.Block;
+import pepse.world.StaticBlock;
+import pepse.world.chunks.Chunk;
+import pepse.world.chunks.TreeDescriptor;
 
 import java.awt.*;
+import java.util.Random;
 
 /**
  * creates tree trunk in given x coordinate
@@ -22,21 +25,45 @@ public class Trunk {
     private static final Color TREE_TRUNK_COLOR = new Color(100, 50, 20);
 
     //================ public methods =================
-    /*
-     * Creates tree trunk.
-     * @param treeXCoordinate  for building tree located on x axis
-     * @param curRandomTreeHeight trees random height
+
+    /**
+     * @return fingerprint of the constants the trunk generation depends on
+     */
+    public static int generatorFingerprint() {
+        return TREE_TRUNK_COLOR.getRGB();
+    }
+
+    /**
+     * Describes the colors of a tree trunk.
+     *
+     * @param treeHeight      y coordinate of the top of the trunk
      * @param currFloorHeight for building trunk from y axis
+     * @param random          random seeded by the tree location
+     * @return rgb color of every trunk block, bottom block first
+     */
+    public static int[] describeTrunk(int treeHeight, int currFloorHeight, Random random) {
+        int numOfBlocks = (int) Math.ceil((currFloorHeight - treeHeight) / Block.SIZE);
+        int[] trunkColors = new int[Math.max(numOfBlocks, 0)];
+        for (int block = 0; block < trunkColors.length; block++) {
+            trunkColors[block] = ColorSupplier.approximateColor(TREE_TRUNK_COLOR, random).getRGB();
+        }
+        return trunkColors;
+    }
+
+    /**
+     * Creates tree trunk.
+     *
+     * @param tree  descriptor of the tree whose trunk is created
+     * @param chunk the resident chunk the trunk blocks are added to
      */
-    public static void createTrunk(int treeXCoordinate, int treeHeight, int currFloorHeight,
-                                   GameObjectCollection gameObjects) {
-        for (int curY = currFloorHeight; curY > treeHeight; curY -= Block.SIZE) {
-            RectangleRenderable rectangleRenderable = new RectangleRenderable(
-                    ColorSupplier.approximateColor(TREE_TRUNK_COLOR));
-            GameObject treeTrunk = new Block(
-                    new Vector2(treeXCoordinate, curY),
+    public static void createTrunk(TreeDescriptor tree, Chunk chunk) {
+        int[] trunkColors = tree.getTrunkColors();
+        for (int block = 0; block < trunkColors.length; block++) {
+            RectangleRenderable rectangleRenderable = new RectangleRenderable(new Color(trunkColors[block]));
+            GameObject treeTrunk = new StaticBlock(
+                    new Vector2(tree.getX(), tree.getFloorY() - block * Block.SIZE),
                     rectangleRenderable); //creates block object
-            gameObjects.addGameObject(treeTrunk, PepseGameManager.TREE_LAYER);
+            chunk.addGameObject(treeTrunk, PepseGameManager.TREE_LAYER);
         }
     }
 }